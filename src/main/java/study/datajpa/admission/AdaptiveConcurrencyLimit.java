@@ -0,0 +1,101 @@
+package study.datajpa.admission;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 가중치(페이지 크기) 단위의 동시 실행 한도를 AIMD 로 조절한다.
+ * - 완료된 요청의 단위 가중치당 지연이 목표 이하이고 한도를 절반 이상 쓰고 있었으면 한도를 weight / limit 만큼 늘린다. (요청 한 바퀴에 +1)
+ * - 목표를 넘으면 한도에 backoffRatio 를 곱한다.
+ * 한도를 넘는 요청은 maxWait 동안 대기열에서 기다리고, 대기열이 가득 찼거나 시간이 지나면 거절한다.
+ * 아무것도 실행 중이 아니면 한도보다 무거운 요청도 하나는 들여보낸다. (큰 페이지가 영원히 거절되지 않도록)
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long targetUnitLatencyNanos;
+    private final int maxQueued;
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long admitted;
+    private long shed;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double backoffRatio, long targetUnitLatencyMillis, int maxQueued) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.targetUnitLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetUnitLatencyMillis);
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * @return 들어갔으면 true. true 를 받은 경우에만 release 를 호출한다.
+     */
+    public synchronized boolean acquire(int weight, long maxWaitMillis) throws InterruptedException {
+        if (fits(weight)) {
+            return admit(weight);
+        }
+        if (queued >= maxQueued || maxWaitMillis <= 0) {
+            shed++;
+            return false;
+        }
+        queued++;
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            while (!fits(weight)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    shed++;
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return admit(weight);
+        } finally {
+            queued--;
+        }
+    }
+
+    public synchronized void release(int weight, long latencyNanos) {
+        boolean utilized = inFlight >= limit / 2;
+        inFlight -= weight;
+        if (latencyNanos / weight > targetUnitLatencyNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (utilized) {
+            limit = Math.min(maxLimit, limit + (double) weight / limit);
+        }
+        notifyAll();
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot((int) limit, inFlight, queued, admitted, shed);
+    }
+
+    private boolean fits(int weight) {
+        return inFlight == 0 || inFlight + weight <= limit;
+    }
+
+    private boolean admit(int weight) {
+        inFlight += weight;
+        admitted++;
+        return true;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Snapshot {
+        private final int limit;
+        private final int inFlight;
+        private final int queued;
+        private final long admitted;
+        private final long shed;
+    }
+}
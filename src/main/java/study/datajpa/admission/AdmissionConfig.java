@@ -0,0 +1,46 @@
+package study.datajpa.admission;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 페이지 크기(또는 limit)를 받는 목록 엔드포인트에만 적용한다. 단건 조회(/members/{id})는 제한하지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    static final String[] LIST_ENDPOINTS = {
+            "/members", "/members2", "/members/age/*", "/members/projection", "/members/slice", "/members/search"
+    };
+
+    @Value("${admission.initial-limit:20}") int initialLimit;
+    @Value("${admission.min-limit:4}") int minLimit;
+    @Value("${admission.max-limit:200}") int maxLimit;
+    @Value("${admission.backoff-ratio:0.9}") double backoffRatio;
+    @Value("${admission.target-unit-latency-millis:50}") long targetUnitLatencyMillis;
+    @Value("${admission.max-queued:50}") int maxQueued;
+    @Value("${admission.max-wait-millis:200}") long maxWaitMillis;
+    @Value("${admission.unit-page-size:20}") int unitPageSize;
+    @Value("${spring.data.web.pageable.max-page-size:2000}") int maxPageSize;
+
+    @Autowired PageableHandlerMethodArgumentResolver pageableResolver;
+
+    @Bean
+    public AdaptiveConcurrencyLimit listConcurrencyLimit() {
+        return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, backoffRatio, targetUnitLatencyMillis, maxQueued);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(listConcurrencyLimit(),
+                        pageableResolver, unitPageSize, maxPageSize, maxWaitMillis))
+                .addPathPatterns(LIST_ENDPOINTS);
+    }
+}
@@ -0,0 +1,113 @@
+package study.datajpa.admission;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 목록 엔드포인트 앞에서 페이지 크기만큼의 가중치로 AdaptiveConcurrencyLimit 에 들어간다.
+ * 페이지 크기는 컨트롤러가 받을 Pageable 과 같게 Pageable 리졸버로 구한다. (엔드포인트의 @PageableDefault, max-page-size 제한)
+ * Pageable 대신 limit 요청 파라미터로 개수를 받는 엔드포인트(/members/search)는 limit 을 [1, max-page-size] 로 잘라 페이지 크기로 쓴다.
+ * 비동기 요청(WebAsyncTask)은 ASYNC 디스패치에서 다시 preHandle 이 오므로 첫 디스패치에서만 들어가고,
+ * 마지막 디스패치의 afterCompletion 에서 나온다.
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".ADMITTED";
+    private static final String LIMIT = "limit";
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final PageableHandlerMethodArgumentResolver pageableResolver;
+    private final int unitPageSize;
+    private final int maxPageSize;
+    private final long maxWaitMillis;
+
+    public AdmissionInterceptor(AdaptiveConcurrencyLimit limit, PageableHandlerMethodArgumentResolver pageableResolver,
+                                int unitPageSize, int maxPageSize, long maxWaitMillis) {
+        this.limit = limit;
+        this.pageableResolver = pageableResolver;
+        this.unitPageSize = unitPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || request.getAttribute(ADMITTED) != null) {
+            return true;
+        }
+        int weight = weightOf(request, handler);
+        if (!limit.acquire(weight, maxWaitMillis)) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "too many concurrent list requests");
+            return false;
+        }
+        request.setAttribute(ADMITTED, new Admission(weight, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        Admission admission = (Admission) request.getAttribute(ADMITTED);
+        if (admission != null) {
+            request.removeAttribute(ADMITTED);
+            limit.release(admission.weight, System.nanoTime() - admission.startNanos);
+        }
+    }
+
+    int weightOf(HttpServletRequest request, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return 1;
+        }
+        for (MethodParameter parameter : ((HandlerMethod) handler).getMethodParameters()) {
+            if (Pageable.class.equals(parameter.getParameterType())) {
+                Pageable pageable = pageableResolver.resolveArgument(parameter, null, new ServletWebRequest(request), null);
+                return pageable.isUnpaged() ? 1 : weightOf(pageable.getPageSize());
+            }
+            RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+            if (requestParam != null && (LIMIT.equals(requestParam.value()) || LIMIT.equals(requestParam.name()))) {
+                return weightOf(limitOf(request, requestParam));
+            }
+        }
+        return 1;
+    }
+
+    private int weightOf(int pageSize) {
+        return Math.max(1, (pageSize + unitPageSize - 1) / unitPageSize);
+    }
+
+    /**
+     * 컨트롤러와 같게 파라미터가 없으면 기본값을 쓰고 [1, max-page-size] 로 자른다. 숫자가 아니면 컨트롤러가 400 으로 응답하므로 1
+     */
+    private int limitOf(HttpServletRequest request, RequestParam requestParam) {
+        String value = request.getParameter(LIMIT);
+        try {
+            int limit = Integer.parseInt(value != null ? value : requestParam.defaultValue());
+            return Math.max(1, Math.min(limit, maxPageSize));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private static class Admission {
+        private final int weight;
+        private final long startNanos;
+
+        Admission(int weight, long startNanos) {
+            this.weight = weight;
+            this.startNanos = startNanos;
+        }
+    }
+}
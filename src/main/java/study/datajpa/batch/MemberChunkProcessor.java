@@ -0,0 +1,15 @@
+package study.datajpa.batch;
+
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 파티션 스캔의 청크 하나를 처리한다. 청크마다 별도 트랜잭션에서 호출되고, 호출 뒤 flush/clear 된다.
+ */
+@FunctionalInterface
+public interface MemberChunkProcessor<R> {
+
+    R process(EntityManager em, List<Member> chunk);
+}
@@ -0,0 +1,199 @@
+package study.datajpa.batch;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.event.MemberChangeEvent;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * "username,age,teamName" CSV 를 스트리밍으로 읽어 StatelessSession 으로 JDBC 배치 INSERT 한다.
+ * - 파싱 스레드(producer)와 쓰기 스레드(consumer)를 크기 제한 큐로 나눠 메모리 사용량이 일정하다.
+ * - 팀 이름은 시작 시 한 번 읽은 맵으로 id 를 찾고, 없는 팀은 만들어서 맵에 넣는다.
+ * - 영속성 컨텍스트, dirty checking, 엔티티 리스너(auditing 포함)를 거치지 않으므로 감사 컬럼은 비어 있다.
+ *   회원별 변경 이벤트 대신 적재가 끝나면(실패해도 커밋된 배치가 있으면) BULK_IMPORTED 이벤트를 한 번 발행한다.
+ * 따옴표로 감싼 필드는 지원하지 않는다.
+ * StatelessSession 은 샤드를 고르지 않으므로 shard.enabled=true 이면 등록하지 않는다. (모든 행이 샤드 0 으로 가지 않도록)
+ */
+@Component
+@ConditionalOnProperty(name = "shard.enabled", havingValue = "false", matchIfMissing = true)
+public class MemberCsvImporter {
+
+    private static final List<String[]> END = Collections.emptyList();
+    private static final String TEAM_STATISTICS_INSERT_SQL =
+            "insert into team_statistics (team_id, member_count, age_sum) values (?1, 0, 0)";
+
+    private final SessionFactory sessionFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public MemberCsvImporter(EntityManagerFactory emf,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize,
+                             @Value("${member.import.queue-capacity:16}") int queueCapacity) {
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public ImportResult importCsv(Path file) {
+        long startedAt = System.currentTimeMillis();
+        BlockingQueue<List<String[]>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> parseError = new AtomicReference<>();
+
+        Thread parser = new Thread(() -> parse(file, queue, parseError), "member-csv-parser");
+        parser.start();
+
+        int members = 0;
+        int committed = 0;
+        int teamsCreated = 0;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Map<String, Team> teams = loadTeams(session);
+            Transaction tx = session.beginTransaction();
+            try {
+                for (List<String[]> batch = queue.take(); batch != END; batch = queue.take()) {
+                    for (String[] row : batch) {
+                        Team team = null;
+                        if (!row[2].isEmpty()) {
+                            team = teams.get(row[2]);
+                            if (team == null) {
+                                team = insertTeam(session, row[2]);
+                                teams.put(row[2], team);
+                                teamsCreated++;
+                            }
+                        }
+                        Member member = new Member(row[0], Integer.parseInt(row[1]));
+                        member.setTeam(team); // changeTeam 은 team.members 컬렉션을 키우므로 사용하지 않는다
+                        session.insert(member);
+                        members++;
+                    }
+                    tx.commit();
+                    committed = members;
+                    tx = session.beginTransaction();
+                }
+                tx.commit();
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw new IllegalStateException("CSV 적재 실패: " + file + " (커밋된 회원 " + committed + "명)", e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("CSV 적재가 중단되었습니다: " + file + " (커밋된 회원 " + committed + "명)", e);
+        } finally {
+            parser.interrupt(); // 쓰기 쪽이 실패하면 큐가 꽉 찬 채로 멈춰 있는 파서를 깨운다
+            if (committed > 0) {
+                // 배치마다 커밋하므로 중간에 실패해도 이미 커밋된 회원은 남는다. 요약, 캐시, 검색 인덱스가 그만큼은 다시 만들어지게 한다.
+                eventPublisher.publishEvent(MemberChangeEvent.bulkImported(committed));
+            }
+        }
+
+        if (parseError.get() != null) {
+            throw new IllegalStateException("CSV 파싱 실패: " + file + " (커밋된 회원 " + committed + "명)", parseError.get());
+        }
+        return new ImportResult(members, teamsCreated, System.currentTimeMillis() - startedAt);
+    }
+
+    private void parse(Path file, BlockingQueue<List<String[]>> queue, AtomicReference<Throwable> parseError) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String[]> batch = new ArrayList<>(batchSize);
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || (first && line.startsWith("username"))) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                String[] fields = line.split(",", -1);
+                if (fields.length != 3) {
+                    throw new IllegalArgumentException("username,age,teamName 형식이 아닙니다: " + line);
+                }
+                batch.add(new String[]{fields[0].trim(), fields[1].trim(), fields[2].trim()});
+                if (batch.size() == batchSize) {
+                    queue.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                queue.put(batch);
+            }
+        } catch (IOException e) {
+            parseError.set(new UncheckedIOException(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            parseError.set(e);
+        }
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Team> loadTeams(StatelessSession session) {
+        Map<String, Team> teams = new HashMap<>();
+        for (Object[] row : session.createQuery("select t.id, t.name from Team t", Object[].class).list()) {
+            teams.put((String) row[1], reference((Long) row[0], (String) row[1]));
+        }
+        return teams;
+    }
+
+    /**
+     * StatelessSession 은 이벤트 리스너를 거치지 않으므로 TeamStatisticsRowCreator 대신 요약 row 를 같은 트랜잭션에서 직접 만든다.
+     */
+    private Team insertTeam(StatelessSession session, String name) {
+        Long id = (Long) session.insert(new Team(name));
+        session.createNativeQuery(TEAM_STATISTICS_INSERT_SQL)
+                .setParameter(1, id)
+                .executeUpdate();
+        return reference(id, name);
+    }
+
+    /**
+     * FK 값만 필요하므로 id 만 채운 팀 객체를 쓴다. (StatelessSession 은 연관 엔티티를 로딩하지 않는다)
+     */
+    private Team reference(Long id, String name) {
+        Team team = new Team(name);
+        team.setId(id);
+        return team;
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class ImportResult {
+        private final int members;
+        private final int teamsCreated;
+        private final long elapsedMillis;
+    }
+}
@@ -0,0 +1,158 @@
+package study.datajpa.batch;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.shard.ShardIds;
+import study.datajpa.shard.Shards;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BinaryOperator;
+
+/**
+ * member_id 범위를 N 개로 나눠 파티션마다 스레드 하나로 처리한다.
+ * 파티션 안에서는 id 키셋으로 chunkSize 씩 읽고, 청크마다 트랜잭션(= 스레드별 EntityManager)을 새로 열고
+ * 처리 후 flush/clear 하므로 영속성 컨텍스트 크기와 락 유지 시간이 청크 크기로 제한된다.
+ * 샤드가 있으면 샤드마다 id 범위를 따로 나누고, 파티션은 자기 샤드(ShardContext)에서 트랜잭션을 연다.
+ */
+@Component
+public class MemberPartitionScanner {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+
+    public MemberPartitionScanner(PlatformTransactionManager transactionManager, Shards shards) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+    }
+
+    public <R> R scan(int partitions, int chunkSize, MemberChunkProcessor<R> processor, R identity, BinaryOperator<R> combiner) {
+        List<Range> ranges = new ArrayList<>();
+        for (int shard = 0; shard < shards.count(); shard++) {
+            Object[] range = shards.on(shard, () -> transactionTemplate.execute(status ->
+                    em.createQuery("select min(m.id), max(m.id) from Member m", Object[].class).getSingleResult()));
+            if (range != null && range[0] != null) {
+                ranges.add(new Range(shard, (Long) range[0], (Long) range[1]));
+            }
+        }
+        return scan(ranges, partitions, chunkSize, processor, identity, combiner);
+    }
+
+    /**
+     * member_id 가 [min, max] 인 회원만 나눠 처리한다. 샤드가 있으면 범위를 샤드 경계(ShardIds.baseOf)에서 자른다.
+     */
+    public <R> R scan(long min, long max, int partitions, int chunkSize, MemberChunkProcessor<R> processor,
+                      R identity, BinaryOperator<R> combiner) {
+        List<Range> ranges = new ArrayList<>();
+        if (!shards.isEnabled()) {
+            ranges.add(new Range(0, min, max));
+        } else {
+            for (int shard = ShardIds.shardOf(Math.max(0, min)); shard <= Math.min(ShardIds.shardOf(max), shards.count() - 1); shard++) {
+                long from = Math.max(min, ShardIds.baseOf(shard));
+                long to = shard + 1 < shards.count() ? Math.min(max, ShardIds.baseOf(shard + 1) - 1) : max;
+                ranges.add(new Range(shard, from, to));
+            }
+        }
+        return scan(ranges, partitions, chunkSize, processor, identity, combiner);
+    }
+
+    /**
+     * 범위(샤드)마다 partitions 개로 나누고, 파티션들은 partitions 개의 스레드가 나눠 처리한다.
+     */
+    private <R> R scan(List<Range> ranges, int partitions, int chunkSize, MemberChunkProcessor<R> processor,
+                       R identity, BinaryOperator<R> combiner) {
+        if (ranges.isEmpty()) {
+            return identity;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(partitions);
+        try {
+            List<Future<R>> futures = new ArrayList<>();
+            for (Range range : ranges) {
+                long width = Math.max(1, (range.max - range.min + partitions) / partitions);
+                for (long from = range.min; from <= range.max; from += width) {
+                    long start = from;
+                    long end = Math.min(range.max, from + width - 1);
+                    futures.add(executor.submit(() -> shards.on(range.shard,
+                            () -> scanPartition(start, end, chunkSize, processor, identity, combiner))));
+                }
+            }
+
+            R result = identity;
+            for (Future<R> future : futures) {
+                result = combiner.apply(result, future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("파티션 스캔이 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("파티션 스캔에 실패했습니다.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private <R> R scanPartition(long start, long end, int chunkSize, MemberChunkProcessor<R> processor,
+                                R identity, BinaryOperator<R> combiner) {
+        R result = identity;
+        long lastId = start - 1;
+        while (lastId < end) {
+            long after = lastId;
+            ChunkResult<R> chunk = transactionTemplate.execute(status -> {
+                List<Member> members = em.createQuery(
+                                "select m from Member m where m.id > :after and m.id <= :end order by m.id", Member.class)
+                        .setParameter("after", after)
+                        .setParameter("end", end)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+                if (members.isEmpty()) {
+                    return null;
+                }
+                R value = processor.process(em, members);
+                long chunkLastId = members.get(members.size() - 1).getId();
+                em.flush();
+                em.clear();
+                return new ChunkResult<>(value, chunkLastId);
+            });
+            if (chunk == null) {
+                break;
+            }
+            result = combiner.apply(result, chunk.value);
+            lastId = chunk.lastId;
+        }
+        return result;
+    }
+
+    private static class ChunkResult<R> {
+        private final R value;
+        private final long lastId;
+
+        ChunkResult(R value, long lastId) {
+            this.value = value;
+            this.lastId = lastId;
+        }
+    }
+
+    private static class Range {
+        private final int shard;
+        private final long min;
+        private final long max;
+
+        Range(int shard, long min, long max) {
+            this.shard = shard;
+            this.min = min;
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.datajpa.event.MemberChangeEvent;
+import study.datajpa.event.MemberChangeType;
+import study.datajpa.event.MemberState;
+
+/**
+ * 커밋된 회원 변경만 캐시에 반영한다. 벌크 연산은 영향받은 username 을 알 수 없으므로 전체를 비운다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberCacheInvalidator {
+
+    private final MemberNearCache memberNearCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void invalidate(MemberChangeEvent event) {
+        if (event.getType() == MemberChangeType.BULK_AGE_INCREMENTED) {
+            return; // 캐시된 MemberDto 에는 나이가 없다.
+        }
+        if (event.isBulk()) {
+            memberNearCache.clear();
+            return;
+        }
+        memberNearCache.evictMember(event.getMemberId());
+        evict(event.getBefore());
+        evict(event.getAfter());
+    }
+
+    private void evict(MemberState state) {
+        if (state != null) {
+            memberNearCache.evict(state.getUsername());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package study.datajpa.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * username 조회 결과를 분리된 MemberDto 스냅샷으로 보관하는 니어 캐시.
+ * 적중은 잠금 없이 ConcurrentHashMap 에서 읽고 항목의 마지막 접근 시각만 갱신한다.
+ * max-size 를 넘으면 접근 시각이 오래된 항목부터 한 번에 10% 를 비우는 근사 LRU 로 정리한다.
+ * 무효화는 MemberCacheInvalidator(회원 변경)와 TeamRenameCacheInvalidator(팀 이름 변경)가 커밋 이후에 수행한다.
+ * 조회 도중 무효화가 일어나면(generation 변경) 읽어온 값은 캐시에 넣지 않는다.
+ */
+@Component
+public class MemberNearCache {
+
+    private final MemberRepository memberRepository;
+    private final int maxSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, String> usernameById = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Object writeLock = new Object(); // 적재, 무효화, 정리만 잡는다.
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MemberNearCache(MemberRepository memberRepository,
+                           @Value("${member.cache.max-size:10000}") int maxSize) {
+        this.memberRepository = memberRepository;
+        this.maxSize = maxSize;
+    }
+
+    public List<MemberDto> findByUsername(String username) {
+        Entry cached = entries.get(username);
+        if (cached != null) {
+            cached.lastAccess = System.nanoTime();
+            hits.increment();
+            return cached.members;
+        }
+        misses.increment();
+
+        long loadedGeneration = generation.get();
+        List<Member> members = memberRepository.findEntityGraphByUsername(username);
+        Entry loaded = new Entry(
+                Collections.unmodifiableList(members.stream().map(MemberNearCache::snapshot).collect(toList())),
+                members.stream().filter(member -> member.getTeam() != null)
+                        .map(member -> member.getTeam().getId()).collect(toSet()));
+
+        synchronized (writeLock) {
+            if (generation.get() == loadedGeneration) {
+                entries.put(username, loaded);
+                loaded.members.forEach(dto -> usernameById.put(dto.getId(), username));
+                if (entries.size() > maxSize) {
+                    evictLeastRecentlyUsed();
+                }
+            }
+        }
+        return loaded.members;
+    }
+
+    public Optional<MemberDto> findOptionalByUsername(String username) {
+        List<MemberDto> result = findByUsername(username);
+        if (result.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, result.size());
+        }
+        return result.stream().findFirst();
+    }
+
+    public MemberDto findMemberByUsername(String username) {
+        return findOptionalByUsername(username).orElse(null);
+    }
+
+    public void evict(String username) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            remove(username);
+        }
+    }
+
+    /**
+     * 이름이 바뀐 경우 이전 username 을 알 수 없으므로 id 인덱스로 찾아서 제거한다.
+     */
+    public void evictMember(Long memberId) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            String username = usernameById.get(memberId);
+            if (username != null) {
+                remove(username);
+            }
+        }
+    }
+
+    /**
+     * 팀 이름이 바뀌면 그 팀 회원의 teamName 스냅샷을 제거한다. 팀 이름 변경은 드물어서 전체를 훑는다.
+     */
+    public void evictTeam(Long teamId) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            entries.forEach((username, entry) -> {
+                if (entry.teamIds.contains(teamId)) {
+                    remove(username);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            evictions.add(entries.size());
+            entries.clear();
+            usernameById.clear();
+        }
+    }
+
+    public MemberCacheStats stats() {
+        return new MemberCacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    /**
+     * 접근 시각 기준 하위 10% (최소 1개)를 한 번에 비운다. 정리 비용은 max-size / 10 번의 적재에 나눠진다.
+     * 정리 도중의 적중이 접근 시각을 바꿀 수 있으므로 정확한 LRU 는 아니다.
+     */
+    private void evictLeastRecentlyUsed() {
+        long[] accesses = entries.values().stream().mapToLong(entry -> entry.lastAccess).toArray();
+        Arrays.sort(accesses);
+        int target = Math.max(1, maxSize / 10) + (entries.size() - maxSize) - 1;
+        long threshold = accesses[Math.min(target, accesses.length - 1)];
+        entries.forEach((username, entry) -> {
+            if (entry.lastAccess <= threshold) {
+                remove(username);
+            }
+        });
+    }
+
+    private void remove(String username) {
+        Entry removed = entries.remove(username);
+        if (removed != null) {
+            removed.members.forEach(dto -> usernameById.remove(dto.getId(), username));
+            evictions.increment();
+        }
+    }
+
+    private static MemberDto snapshot(Member member) {
+        String teamName = member.getTeam() == null ? null : member.getTeam().getName();
+        return new MemberDto(member.getId(), member.getUsername(), teamName);
+    }
+
+    private static class Entry {
+
+        private final List<MemberDto> members;
+        private final Set<Long> teamIds;
+        private volatile long lastAccess = System.nanoTime();
+
+        Entry(List<MemberDto> members, Set<Long> teamIds) {
+            this.members = members;
+            this.teamIds = teamIds;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 캐시된 MemberDto 에는 팀 이름이 들어 있으므로 팀 이름 변경이 커밋되면 그 팀 회원의 캐시를 비운다.
+ * 엔티티 변경만 감지한다. (JPQL 벌크 update 로 팀 이름을 바꾸면 감지되지 않는다)
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamRenameCacheInvalidator implements PostUpdateEventListener {
+
+    private final EntityManagerFactory emf;
+    private final MemberNearCache memberNearCache;
+
+    @PostConstruct
+    public void register() {
+        emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_UPDATE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Team) || !nameChanged(event)) {
+            return;
+        }
+        Long teamId = (Long) event.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    memberNearCache.evictTeam(teamId);
+                }
+            });
+        } else {
+            memberNearCache.evictTeam(teamId);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static boolean nameChanged(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true; // 변경 속성을 모르면 바뀐 것으로 본다.
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (names[index].equals("name")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
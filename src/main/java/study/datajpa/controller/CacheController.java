@@ -0,0 +1,22 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.cache.MemberCacheStats;
+import study.datajpa.cache.MemberNearCache;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final MemberNearCache memberNearCache;
+
+    /**
+     * username 니어 캐시의 적중/실패/제거 횟수와 현재 항목 수
+     */
+    @GetMapping("/cache/stats")
+    public MemberCacheStats stats() {
+        return memberNearCache.stats();
+    }
+}
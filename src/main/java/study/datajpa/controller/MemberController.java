@@ -1,16 +1,33 @@
 package study.datajpa.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.cache.MemberNearCache;
+import study.datajpa.deadline.QueryDeadlines;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.fetch.FetchPlan;
+import study.datajpa.fetch.FetchPlans;
+import study.datajpa.repository.MemberProjection;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.slice.MemberSlicePrefetcher;
+import study.datajpa.writebehind.MemberAgeIncrementBuffer;
 
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @RestController
@@ -18,6 +35,13 @@ import java.util.stream.IntStream;
 public class MemberController {
 
     private final MemberRepository memberRepository;
+    private final MemberNearCache memberNearCache;
+    private final MemberSlicePrefetcher memberSlicePrefetcher;
+    private final QueryDeadlines queryDeadlines;
+    private final MemberAgeIncrementBuffer memberAgeIncrementBuffer;
+
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
@@ -30,15 +54,80 @@ public class MemberController {
         return member.getUsername();
     }
 
+    @GetMapping("/members/username/{username}")
+    public List<MemberDto> findByUsername(@PathVariable("username") String username) {
+        return memberNearCache.findByUsername(username);
+    }
+
+    /**
+     * 응답에 쓰는 팀까지 조회할 때 함께 가져와서 DTO 로 바꾼다. (OSIV 없이 직렬화 중 지연 로딩이 일어나지 않게)
+     */
     @GetMapping("/members")
-    public Page<Member> list(@PageableDefault(size = 5) Pageable pageable) {
-        return memberRepository.findAll(pageable);
+    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable) {
+        return FetchPlans.with(FetchPlan.named(Member.class, "Member.all"), () -> memberRepository.findAll(pageable))
+                .map(m -> new MemberDto(m.getId(), m.getUsername(), m.getTeam() == null ? null : m.getTeam().getName()));
     }
 
     @GetMapping("/members2")
-    public Page<MemberDto> list2(@PageableDefault(size = 5) Pageable pageable) {
-        return memberRepository.findAll(pageable)
-                .map(MemberDto::new);
+    public WebAsyncTask<Page<MemberDto>> list2(@PageableDefault(size = 5) Pageable pageable) {
+        return queryDeadlines.within("members2", () -> memberRepository.findAll(pageable)
+                .map(MemberDto::new));
+    }
+
+    @GetMapping("/members/age/{age}")
+    public WebAsyncTask<Page<MemberDto>> listByAge(@PathVariable("age") int age,
+                                                   @PageableDefault(size = 20) Pageable pageable) {
+        return queryDeadlines.within("members-by-age", () -> memberRepository.findByAge(age, pageable)
+                .map(MemberDto::new));
+    }
+
+    @GetMapping("/members/projection")
+    public WebAsyncTask<Page<MemberProjection>> projection(@PageableDefault(size = 20) Pageable pageable) {
+        return queryDeadlines.within("members-projection", () -> memberRepository.findByNativeProjection(pageable));
+    }
+
+    /**
+     * 다음 slice 를 요청할 때 응답 헤더(X-Slice-Cursor)의 토큰을 cursor 로 보내면 미리 읽어 둔 결과로 응답한다.
+     */
+    @GetMapping("/members/slice")
+    public ResponseEntity<Slice<MemberDto>> slice(@RequestParam("age") int age,
+                                                  @PageableDefault(size = 20) Pageable pageable,
+                                                  @RequestParam(value = "cursor", required = false) String cursor) {
+        MemberSlicePrefetcher.CursorSlice result = memberSlicePrefetcher.findSliceByAge(age, pageable, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.getNextCursor() != null) {
+            response.header(MemberSlicePrefetcher.CURSOR_HEADER, result.getNextCursor());
+        }
+        return response.body(result.getSlice());
+    }
+
+    /**
+     * limit 는 페이징 엔드포인트와 같이 [1, max-page-size] 로 자른다.
+     */
+    @GetMapping("/members/search")
+    public List<MemberDto> search(@RequestParam("keyword") String keyword,
+                                  @RequestParam(value = "prefix", defaultValue = "true") boolean prefix,
+                                  @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        limit = Math.max(1, Math.min(limit, maxPageSize));
+        List<Member> members = prefix
+                ? memberRepository.searchByUsernamePrefix(keyword, limit)
+                : memberRepository.searchByUsernameContaining(keyword, limit);
+        return members.stream()
+                .map(m -> new MemberDto(m.getId(), m.getUsername(), m.getTeam() == null ? null : m.getTeam().getName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 쓰기 지연 버퍼에 더하고 바로 돌아온다. DB 반영은 member.write-behind.flush-interval 뒤에 일어난다.
+     * 없는 회원이면 404.
+     */
+    @PostMapping("/members/{id}/age/increment")
+    public MemberAgeIncrementBuffer.Snapshot incrementAge(@PathVariable("id") Long id,
+                                                          @RequestParam(value = "delta", defaultValue = "1") long delta) {
+        if (!memberAgeIncrementBuffer.incrementIfExists(id, delta)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "member not found: " + id);
+        }
+        return memberAgeIncrementBuffer.snapshot();
     }
 
     // @PostConstruct
@@ -0,0 +1,49 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.admission.AdaptiveConcurrencyLimit;
+import study.datajpa.deadline.DeadlineMetrics;
+import study.datajpa.guard.LazyLoadGuard;
+import study.datajpa.pool.PoolMetrics;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class PoolController {
+
+    private final PoolMetrics poolMetrics;
+    private final DeadlineMetrics deadlineMetrics;
+    private final ObjectProvider<AdaptiveConcurrencyLimit> listConcurrencyLimit;
+    private final LazyLoadGuard lazyLoadGuard;
+
+    @GetMapping("/pool/stats")
+    public PoolMetrics.Snapshot stats() {
+        return poolMetrics.snapshot();
+    }
+
+    @GetMapping("/pool/deadlines")
+    public Map<String, DeadlineMetrics.EndpointSnapshot> deadlines() {
+        return deadlineMetrics.snapshot();
+    }
+
+    @GetMapping("/pool/admission")
+    public AdaptiveConcurrencyLimit.Snapshot admission() {
+        AdaptiveConcurrencyLimit limit = listConcurrencyLimit.getIfAvailable();
+        return limit == null ? null : limit.snapshot();
+    }
+
+    /**
+     * 엔드포인트별 지연 로딩 문제 횟수
+     * - outsideTransaction: 세션은 열려 있지만 트랜잭션 밖에서 로딩
+     * - closedSession: 세션이 닫혀 LazyInitializationException
+     */
+    @GetMapping("/pool/lazy-loads")
+    public Map<String, Map<String, Long>> lazyLoads() {
+        return Map.of("outsideTransaction", lazyLoadGuard.snapshot(),
+                "closedSession", lazyLoadGuard.closedSessionSnapshot());
+    }
+}
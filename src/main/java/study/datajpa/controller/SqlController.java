@@ -0,0 +1,21 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.sql.SqlObserver;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class SqlController {
+
+    private final SqlObserver sqlObserver;
+
+    @GetMapping("/sql/stats")
+    public List<SqlObserver.ShapeSnapshot> stats(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return sqlObserver.snapshot(limit);
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.TeamStatisticsDto;
+import study.datajpa.repository.TeamStatisticsRepository;
+import study.datajpa.stats.TeamStatisticsMaintainer;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatisticsRepository teamStatisticsRepository;
+    private final TeamStatisticsMaintainer teamStatisticsMaintainer;
+
+    @GetMapping("/teams/statistics")
+    public List<TeamStatisticsDto> statistics() {
+        return teamStatisticsRepository.findTeamStatistics();
+    }
+
+    @PostMapping("/teams/statistics/rebuild")
+    public int rebuildStatistics() {
+        return teamStatisticsMaintainer.rebuild();
+    }
+}
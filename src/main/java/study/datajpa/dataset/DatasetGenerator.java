@@ -0,0 +1,158 @@
+package study.datajpa.dataset;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import study.datajpa.id.SequenceRestarts;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * DatasetSpec 대로 팀/회원을 JDBC 배치로 적재한다. 엔티티/영속성 컨텍스트를 거치지 않으므로 수백만 건도 빠르게 넣을 수 있다.
+ * id 는 회원 1..members, 팀 members+1..members+teams 로 고정하고, 적재 후 모든 시퀀스를 마지막 id 뒤로 옮긴다.
+ * 변경 이벤트를 발행하지 않으므로 앱 컨텍스트 안에서는 DatasetSeeder 를 쓴다.
+ */
+@RequiredArgsConstructor
+public class DatasetGenerator {
+
+    private final DataSource dataSource;
+
+    public Summary generate(DatasetSpec spec) {
+        long startedAt = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(spec.getSeed());
+        double[] teamCdf = teamCdf(spec.getTeams(), spec.getTeamSkew());
+        int[] teamSizes = new int[spec.getTeams()];
+        long checksum = 17;
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                insertTeams(connection, spec);
+
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)")) {
+                    for (long id = 1; id <= spec.getMembers(); id++) {
+                        String username = username(random, spec, id);
+                        int age = age(random, spec);
+                        int team = random.nextDouble() < spec.getNoTeamRatio() ? -1 : sampleTeam(random, teamCdf);
+
+                        ps.setLong(1, id);
+                        ps.setString(2, username);
+                        ps.setInt(3, age);
+                        if (team < 0) {
+                            ps.setNull(4, Types.BIGINT);
+                        } else {
+                            ps.setLong(4, spec.getMembers() + 1L + team);
+                            teamSizes[team]++;
+                        }
+                        ps.addBatch();
+                        checksum = 31 * checksum + (username.hashCode() * 31L + age) * 31 + team;
+
+                        if (id % spec.getBatchSize() == 0 || id == spec.getMembers()) {
+                            ps.executeBatch();
+                            connection.commit();
+                        }
+                    }
+                }
+                SequenceRestarts.restartAll(connection, (long) spec.getMembers() + spec.getTeams() + 1);
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("데이터셋 적재 실패: " + spec, e);
+        }
+
+        int largestTeam = Arrays.stream(teamSizes).max().orElse(0);
+        return new Summary(spec.getMembers(), spec.getTeams(), largestTeam, checksum, System.currentTimeMillis() - startedAt);
+    }
+
+    private void insertTeams(Connection connection, DatasetSpec spec) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("insert into team (team_id, name) values (?, ?)")) {
+            for (int team = 0; team < spec.getTeams(); team++) {
+                ps.setLong(1, spec.getMembers() + 1L + team);
+                ps.setString(2, "team" + (team + 1));
+                ps.addBatch();
+                if ((team + 1) % spec.getBatchSize() == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static String username(SplittableRandom random, DatasetSpec spec, long id) {
+        if (spec.getUsernameCollisionRatio() > 0 && random.nextDouble() < spec.getUsernameCollisionRatio()) {
+            return "common" + random.nextInt(spec.getCollisionPoolSize());
+        }
+        return "member" + id;
+    }
+
+    private static int age(SplittableRandom random, DatasetSpec spec) {
+        int min = spec.getMinAge();
+        int max = spec.getMaxAge();
+        switch (spec.getAgeDistribution()) {
+            case NORMAL:
+                return clamp((int) Math.round(spec.getMeanAge() + gaussian(random) * spec.getAgeStddev()), min, max);
+            case EXPONENTIAL:
+                return clamp(min + (int) (-Math.log(1 - random.nextDouble()) * (spec.getMeanAge() - min)), min, max);
+            default:
+                return min + random.nextInt(max - min + 1);
+        }
+    }
+
+    /**
+     * Box-Muller (SplittableRandom 에는 nextGaussian 이 없다)
+     */
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * k 번째 팀의 가중치 1 / (k + 1)^skew 의 누적 분포. 팀 선택은 이진 탐색으로 O(log teams)
+     */
+    static double[] teamCdf(int teams, double skew) {
+        double[] cdf = new double[teams];
+        double total = 0;
+        for (int k = 0; k < teams; k++) {
+            total += 1 / Math.pow(k + 1, skew);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < teams; k++) {
+            cdf[k] /= total;
+        }
+        return cdf;
+    }
+
+    private static int sampleTeam(SplittableRandom random, double[] cdf) {
+        if (cdf.length == 0) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Summary {
+        private final int members;
+        private final int teams;
+        private final int largestTeam;
+        private final long checksum;
+        private final long elapsedMillis;
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.dataset;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import study.datajpa.event.MemberChangeEvent;
+
+import javax.sql.DataSource;
+
+/**
+ * 앱 컨텍스트 안에서 DatasetGenerator 를 실행하고, 적재가 끝나면 BULK_IMPORTED 를 발행해서
+ * 팀 요약, 캐시, username 검색 인덱스가 다시 만들어지게 한다. (MemberCsvImporter 와 같은 방식)
+ * 샤드 라우팅 없이 JDBC 로 적재하므로 shard.enabled=true 이면 등록하지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shard.enabled", havingValue = "false", matchIfMissing = true)
+public class DatasetSeeder {
+
+    private final DatasetGenerator generator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DatasetSeeder(DataSource dataSource, ApplicationEventPublisher eventPublisher) {
+        this.generator = new DatasetGenerator(dataSource);
+        this.eventPublisher = eventPublisher;
+    }
+
+    public DatasetGenerator.Summary seed(DatasetSpec spec) {
+        DatasetGenerator.Summary summary = generator.generate(spec);
+        eventPublisher.publishEvent(MemberChangeEvent.bulkImported(summary.getMembers()));
+        log.info("dataset seeded: {}", summary);
+        return summary;
+    }
+}
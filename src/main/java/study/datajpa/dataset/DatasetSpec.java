@@ -0,0 +1,48 @@
+package study.datajpa.dataset;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 합성 데이터셋 설정. 같은 설정(seed 포함)이면 항상 같은 데이터가 만들어진다.
+ */
+@Getter @Setter
+@ToString
+public class DatasetSpec {
+
+    public enum AgeDistribution {
+        UNIFORM, NORMAL, EXPONENTIAL
+    }
+
+    private long seed = 42;
+    private int members = 10_000;
+    private int teams = 100;
+
+    /**
+     * 팀 크기 Zipf 지수. 0 이면 균등, 1 이상이면 앞쪽 몇 팀에 회원이 몰린다.
+     */
+    private double teamSkew = 0.0;
+    private double noTeamRatio = 0.0;
+
+    private AgeDistribution ageDistribution = AgeDistribution.UNIFORM;
+    private int minAge = 0;
+    private int maxAge = 79;
+    private double meanAge = 35;
+    private double ageStddev = 12;
+
+    /**
+     * 이 비율의 회원은 collisionPoolSize 개의 공용 username(common0..) 중 하나를 쓴다.
+     */
+    private double usernameCollisionRatio = 0.0;
+    private int collisionPoolSize = 100;
+
+    private int batchSize = 1000;
+
+    public static DatasetSpec of(int members, int teams) {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setMembers(members);
+        spec.setTeams(teams);
+        return spec;
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.deadline;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 엔드포인트별 예산 초과/클라이언트 끊김/취소된 문장 수
+ */
+@Component
+public class DeadlineMetrics {
+
+    private final Map<String, Counters> endpoints = new ConcurrentHashMap<>();
+
+    void finished(String endpoint, RequestDeadline.CancelReason reason) {
+        Counters counters = counters(endpoint);
+        counters.requests.increment();
+        if (reason == RequestDeadline.CancelReason.TIMEOUT) {
+            counters.timedOut.increment();
+        } else if (reason == RequestDeadline.CancelReason.DISCONNECTED) {
+            counters.disconnected.increment();
+        }
+    }
+
+    void statementCancelled(String endpoint) {
+        counters(endpoint).cancelledStatements.increment();
+    }
+
+    void rejected(String endpoint) {
+        counters(endpoint).rejectedStatements.increment();
+    }
+
+    public Map<String, EndpointSnapshot> snapshot() {
+        Map<String, EndpointSnapshot> snapshot = new TreeMap<>();
+        endpoints.forEach((endpoint, c) -> snapshot.put(endpoint, new EndpointSnapshot(
+                c.requests.sum(), c.timedOut.sum(), c.disconnected.sum(),
+                c.cancelledStatements.sum(), c.rejectedStatements.sum())));
+        return snapshot;
+    }
+
+    private Counters counters(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, e -> new Counters());
+    }
+
+    static class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder disconnected = new LongAdder();
+        private final LongAdder cancelledStatements = new LongAdder();
+        private final LongAdder rejectedStatements = new LongAdder();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class EndpointSnapshot {
+        private final long requests;
+        private final long timedOut;
+        private final long disconnected;
+        private final long cancelledStatements;
+        private final long rejectedStatements;
+    }
+}
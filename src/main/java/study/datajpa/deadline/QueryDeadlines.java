@@ -0,0 +1,108 @@
+package study.datajpa.deadline;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.pool.PoolMetrics;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔드포인트별 쿼리 시간 예산. 예산은 member.deadline.budgets.{endpoint} (없으면 member.deadline.default-millis)
+ * within() 은 쿼리를 비동기 요청(WebAsyncTask)으로 전용 스레드 풀에서 실행해서 요청 스레드를 붙잡지 않고,
+ * 예산 초과(onTimeout) 시 실행 중인 문장을 취소한다.
+ * 컨테이너가 비동기 요청의 오류(onError)를 알리면 그때도 취소한다. 다만 Tomcat 은 응답을 쓰기 전에는 클라이언트가
+ * 끊은 것을 알지 못하는 경우가 많으므로 끊김 감지는 보장되지 않고, 그런 요청은 예산 시점에 취소된다.
+ * 스레드 풀(member.deadline.executor)은 applicationTaskExecutor 와 분리해서 다른 비동기 작업과 동시성 한도를 나눠 쓰지 않게 한다.
+ * 큐가 가득 차면 작업이 거절된다. (앞단의 admission 제한이 그 전에 요청을 돌려보낸다)
+ */
+@Component
+public class QueryDeadlines {
+
+    private final Environment environment;
+    private final DeadlineMetrics metrics;
+    private final long defaultBudgetMillis;
+    private final ThreadPoolTaskExecutor executor;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "query-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public QueryDeadlines(Environment environment,
+                          DeadlineMetrics metrics,
+                          @Value("${member.deadline.default-millis:2000}") long defaultBudgetMillis,
+                          @Value("${member.deadline.executor.threads:32}") int threads,
+                          @Value("${member.deadline.executor.queue-capacity:500}") int queueCapacity) {
+        this.environment = environment;
+        this.metrics = metrics;
+        this.defaultBudgetMillis = defaultBudgetMillis;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setThreadNamePrefix("query-deadline-");
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setDaemon(true);
+        this.executor.initialize();
+    }
+
+    public long budgetOf(String endpoint) {
+        return environment.getProperty("member.deadline.budgets." + endpoint, Long.class, defaultBudgetMillis);
+    }
+
+    public <T> WebAsyncTask<T> within(String endpoint, Callable<T> query) {
+        RequestDeadline deadline = start(endpoint, budgetOf(endpoint));
+        String poolEndpoint = PoolMetrics.boundEndpoint(); // 커넥션 점유 시간은 요청 스레드의 엔드포인트로 집계
+        WebAsyncTask<T> task = new WebAsyncTask<>(deadline.getBudgetMillis(), executor, () -> {
+            PoolMetrics.bindEndpoint(poolEndpoint != null ? poolEndpoint : endpoint);
+            try {
+                return deadline.run(query);
+            } finally {
+                PoolMetrics.unbindEndpoint();
+            }
+        });
+        task.onTimeout(() -> {
+            deadline.cancel(RequestDeadline.CancelReason.TIMEOUT);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "query deadline exceeded: " + endpoint);
+        });
+        task.onError(() -> {
+            deadline.cancel(RequestDeadline.CancelReason.DISCONNECTED);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "request aborted: " + endpoint);
+        });
+        task.onCompletion(deadline::close);
+        return task;
+    }
+
+    /**
+     * 현재 스레드에서 예산을 걸고 실행한다. (배치, 테스트)
+     */
+    public <T> T call(String endpoint, long budgetMillis, Callable<T> query) throws Exception {
+        RequestDeadline deadline = start(endpoint, budgetMillis);
+        try {
+            return deadline.run(query);
+        } finally {
+            deadline.close();
+        }
+    }
+
+    private RequestDeadline start(String endpoint, long budgetMillis) {
+        RequestDeadline deadline = new RequestDeadline(endpoint, budgetMillis, metrics);
+        deadline.startTimer(timer.schedule(() -> deadline.cancel(RequestDeadline.CancelReason.TIMEOUT),
+                budgetMillis, TimeUnit.MILLISECONDS));
+        return deadline;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,120 @@
+package study.datajpa.deadline;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 하나의 쿼리 시간 예산. run() 안에서 실행되는 모든 JDBC 문장은 남은 예산을 query timeout 으로 받고
+ * (InstrumentedConnectionProvider), 예산이 끝나거나 클라이언트가 끊기면 실행 중인 문장을 Statement.cancel() 로 취소한다.
+ * JDBC query timeout 은 초 단위라 DB 쪽 안전장치이고, 밀리초 단위 취소는 QueryDeadlines 의 타이머가 한다.
+ */
+@Slf4j
+public class RequestDeadline {
+
+    public enum CancelReason {
+        TIMEOUT, DISCONNECTED
+    }
+
+    private static final ThreadLocal<RequestDeadline> current = new ThreadLocal<>();
+
+    @Getter
+    private final String endpoint;
+    @Getter
+    private final long budgetMillis;
+    private final long deadlineNanos;
+    private final DeadlineMetrics metrics;
+    private final Set<Statement> running = ConcurrentHashMap.newKeySet();
+    private volatile CancelReason cancelReason;
+    private volatile ScheduledFuture<?> timer;
+
+    RequestDeadline(String endpoint, long budgetMillis, DeadlineMetrics metrics) {
+        this.endpoint = endpoint;
+        this.budgetMillis = budgetMillis;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.metrics = metrics;
+    }
+
+    public static RequestDeadline current() {
+        return current.get();
+    }
+
+    /**
+     * 현재 스레드에 이 예산을 걸고 action 을 실행한다. 트랜잭션은 action 안에서 시작해야 한다.
+     */
+    public <T> T run(Callable<T> action) throws Exception {
+        RequestDeadline previous = current.get();
+        current.set(this);
+        try {
+            return action.call();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public CancelReason getCancelReason() {
+        return cancelReason;
+    }
+
+    public void beforeExecute(Statement statement) throws SQLException {
+        long remaining = remainingMillis();
+        if (cancelReason != null || remaining <= 0) {
+            metrics.rejected(endpoint);
+            throw new SQLTimeoutException("query deadline exceeded: " + endpoint, "57014");
+        }
+        statement.setQueryTimeout((int) Math.max(1, (remaining + 999) / 1000));
+        running.add(statement);
+        if (cancelReason != null) { // 등록 직전에 취소된 경우
+            running.remove(statement);
+            metrics.rejected(endpoint);
+            throw new SQLTimeoutException("query deadline exceeded: " + endpoint, "57014");
+        }
+    }
+
+    public void afterExecute(Statement statement) {
+        running.remove(statement);
+    }
+
+    public void cancel(CancelReason reason) {
+        if (cancelReason != null) {
+            return;
+        }
+        cancelReason = reason;
+        for (Statement statement : running) {
+            try {
+                statement.cancel();
+                metrics.statementCancelled(endpoint);
+            } catch (SQLException e) {
+                log.debug("statement cancel failed. endpoint={}", endpoint, e);
+            }
+        }
+    }
+
+    void startTimer(ScheduledFuture<?> timer) {
+        this.timer = timer;
+    }
+
+    void close() {
+        ScheduledFuture<?> t = timer;
+        if (t != null) {
+            t.cancel(false);
+        }
+        metrics.finished(endpoint, cancelReason);
+    }
+}
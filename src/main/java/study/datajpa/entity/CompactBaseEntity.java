@@ -0,0 +1,30 @@
+package study.datajpa.entity;
+
+import lombok.Getter;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.EntityListeners;
+import javax.persistence.MappedSuperclass;
+
+/**
+ * BaseEntity 와 같은 컬럼을 UUID 문자열(varchar 36) 대신 binary(16)로 저장한다.
+ */
+@EntityListeners(AuditingEntityListener.class)
+@MappedSuperclass
+@Getter
+public class CompactBaseEntity extends CompactBaseTimeEntity {
+
+    @CreatedBy
+    @Convert(converter = UuidBytesConverter.class)
+    @Column(updatable = false, columnDefinition = "binary(16)")
+    private String createBy;
+
+    @LastModifiedBy
+    @Convert(converter = UuidBytesConverter.class)
+    @Column(columnDefinition = "binary(16)")
+    private String lastModifiedBy;
+}
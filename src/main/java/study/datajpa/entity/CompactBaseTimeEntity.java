@@ -0,0 +1,31 @@
+package study.datajpa.entity;
+
+import lombok.Getter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.EntityListeners;
+import javax.persistence.MappedSuperclass;
+import java.time.LocalDateTime;
+
+/**
+ * BaseTimeEntity 와 같은 컬럼을 timestamp 대신 epoch millis(bigint, 8 byte)로 저장한다.
+ * 기존 테이블은 db/compact-audit-migration.sql 로 변환한 뒤 상속 대상을 바꾼다.
+ */
+@EntityListeners(AuditingEntityListener.class)
+@MappedSuperclass
+@Getter
+public class CompactBaseTimeEntity {
+
+    @CreatedDate
+    @Convert(converter = EpochMillisConverter.class)
+    @Column(updatable = false)
+    private LocalDateTime createDate;
+
+    @LastModifiedDate
+    @Convert(converter = EpochMillisConverter.class)
+    private LocalDateTime lastModifiedDate;
+}
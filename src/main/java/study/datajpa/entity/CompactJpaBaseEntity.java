@@ -0,0 +1,38 @@
+package study.datajpa.entity;
+
+import lombok.Getter;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import java.time.LocalDateTime;
+
+/**
+ * JpaBaseEntity 와 같은 컬럼을 timestamp 대신 epoch millis(bigint, 8 byte)로 저장한다.
+ * 기존 테이블은 db/compact-audit-migration.sql 로 변환한 뒤 상속 대상을 바꾼다.
+ */
+@MappedSuperclass
+@Getter
+public class CompactJpaBaseEntity {
+
+    @Convert(converter = EpochMillisConverter.class)
+    @Column(updatable = false)
+    private LocalDateTime createDate;
+
+    @Convert(converter = EpochMillisConverter.class)
+    private LocalDateTime updateDate;
+
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        createDate = now;
+        updateDate = now;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updateDate = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * LocalDateTime <-> epoch millis(bigint).
+ * LocalDateTime 을 UTC 벽시계 시각으로 보고 변환하므로 JVM 타임존과 무관하게 그대로 복원된다. (밀리초 미만은 버린다)
+ */
+@Converter
+public class EpochMillisConverter implements AttributeConverter<LocalDateTime, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(LocalDateTime attribute) {
+        return attribute == null ? null : attribute.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @Override
+    public LocalDateTime convertToEntityAttribute(Long dbData) {
+        return dbData == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(dbData), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import study.datajpa.event.MemberChangeType;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+import static lombok.AccessLevel.PROTECTED;
+
+/**
+ * 트랜잭셔널 아웃박스. 회원 변경과 같은 트랜잭션에서 저장되고 OutboxRelay 가 배치로 꺼내 발행한 뒤 삭제한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = PROTECTED)
+@ToString(of = {"id", "eventType", "memberId"})
+public class OutboxEvent {
+
+    @Id @GeneratedValue
+    @Column(name = "outbox_event_id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private MemberChangeType eventType;
+    private Long memberId;
+
+    @Column(length = 1000)
+    private String payload;
+
+    private LocalDateTime createdDate;
+
+    public OutboxEvent(MemberChangeType eventType, Long memberId, String payload) {
+        this.eventType = eventType;
+        this.memberId = memberId;
+        this.payload = payload;
+        this.createdDate = LocalDateTime.now();
+    }
+}
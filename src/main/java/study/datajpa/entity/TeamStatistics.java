@@ -0,0 +1,37 @@
+package study.datajpa.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import static lombok.AccessLevel.PROTECTED;
+
+/**
+ * 팀별 회원 수/나이 합계 요약. 회원 변경 시 TeamStatisticsMaintainer 가 증분으로 갱신한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = PROTECTED)
+@ToString(of = {"teamId", "memberCount", "ageSum"})
+public class TeamStatistics {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+    private long memberCount;
+    private long ageSum;
+
+    public TeamStatistics(Long teamId, long memberCount, long ageSum) {
+        this.teamId = teamId;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+    }
+
+    public double getAverageAge() {
+        return memberCount == 0 ? 0.0 : (double) ageSum / memberCount;
+    }
+}
@@ -0,0 +1,79 @@
+package study.datajpa.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Map;
+
+import static lombok.AccessLevel.PRIVATE;
+
+/**
+ * 회원 변경 이벤트. 변경이 일어난 트랜잭션 안에서 커밋 직전에 발행된다. (MemberChangePublisher)
+ * 벌크 연산은 개별 회원을 알 수 없으므로 memberId 없이 영향받은 row 수만 담는다.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = PRIVATE)
+public class MemberChangeEvent {
+
+    private final MemberChangeType type;
+    private final Long memberId;
+    private final MemberState before;
+    private final MemberState after;
+    private final Integer ageThreshold;
+    private final int affectedCount;
+    @JsonIgnore
+    @ToString.Exclude
+    private final Map<Long, Long> teamAgeDeltas;
+
+    public static MemberChangeEvent created(Long memberId, MemberState after) {
+        return new MemberChangeEvent(MemberChangeType.CREATED, memberId, null, after, null, 1, Map.of());
+    }
+
+    public static MemberChangeEvent updated(Long memberId, MemberState before, MemberState after) {
+        return new MemberChangeEvent(MemberChangeType.UPDATED, memberId, before, after, null, 1, Map.of());
+    }
+
+    public static MemberChangeEvent deleted(Long memberId, MemberState before) {
+        return new MemberChangeEvent(MemberChangeType.DELETED, memberId, before, null, null, 1, Map.of());
+    }
+
+    /**
+     * bulkAgePlus(age): age 이상인 회원의 나이가 1 증가
+     */
+    public static MemberChangeEvent bulkAged(int ageThreshold, int affectedCount) {
+        return new MemberChangeEvent(MemberChangeType.BULK_AGED, null, null, null, ageThreshold, affectedCount, Map.of());
+    }
+
+    public static MemberChangeEvent bulkUpdated(int affectedCount) {
+        return new MemberChangeEvent(MemberChangeType.BULK_UPDATED, null, null, null, null, affectedCount, Map.of());
+    }
+
+    public static MemberChangeEvent bulkDeleted(int affectedCount) {
+        return new MemberChangeEvent(MemberChangeType.BULK_DELETED, null, null, null, null, affectedCount, Map.of());
+    }
+
+    /**
+     * 영속성 컨텍스트와 이벤트 리스너를 거치지 않는 대량 적재(MemberCsvImporter)
+     */
+    public static MemberChangeEvent bulkImported(int affectedCount) {
+        return new MemberChangeEvent(MemberChangeType.BULK_IMPORTED, null, null, null, null, affectedCount, Map.of());
+    }
+
+    /**
+     * 쓰기 지연 버퍼(MemberAgeIncrementBuffer)가 모아둔 회원별 나이 증가분을 한 번에 반영. 팀별 나이 합 증가분을 담는다.
+     */
+    public static MemberChangeEvent agesIncremented(int affectedCount, Map<Long, Long> teamAgeDeltas) {
+        return new MemberChangeEvent(MemberChangeType.BULK_AGE_INCREMENTED, null, null, null, null, affectedCount, teamAgeDeltas);
+    }
+
+    public boolean isBulk() {
+        return memberId == null;
+    }
+
+    public boolean isTeamChanged() {
+        return type == MemberChangeType.UPDATED && !after.isSameTeam(before);
+    }
+}
@@ -0,0 +1,89 @@
+package study.datajpa.event;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * flush 시점의 INSERT/UPDATE/DELETE 를 MemberChangeEvent 로 변환한다.
+ * 엔티티 메소드(changeTeam, setter)로 바꾼 값도 dirty checking 으로 잡히므로 save 호출 여부와 무관하게 감지된다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final MemberChangePublisher publisher;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            MemberState after = state(event.getPersister(), event.getState());
+            publisher.publish(event.getSession(), MemberChangeEvent.created((Long) event.getId(), after));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            MemberState before = event.getOldState() == null ? null : state(event.getPersister(), event.getOldState());
+            MemberState after = state(event.getPersister(), event.getState());
+            publisher.publish(event.getSession(), MemberChangeEvent.updated((Long) event.getId(), before, after));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            MemberState before = state(event.getPersister(), event.getDeletedState());
+            publisher.publish(event.getSession(), MemberChangeEvent.deleted((Long) event.getId(), before));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private MemberState state(EntityPersister persister, Object[] values) {
+        return new MemberState(
+                (String) values[persister.getEntityMetamodel().getPropertyIndex("username")],
+                (Integer) values[persister.getEntityMetamodel().getPropertyIndex("age")],
+                teamId(values[persister.getEntityMetamodel().getPropertyIndex("team")]));
+    }
+
+    private Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) { // 프록시 초기화 없이 id 조회
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.event;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 세션(트랜잭션) 단위로 회원 변경 이벤트를 모았다가 커밋 직전(flush 이후)에 한 번에 발행한다.
+ * 리스너(@EventListener)는 같은 트랜잭션 안에서 실행되므로 리스너가 쓴 데이터는 회원 변경과 함께 커밋/롤백된다.
+ * 커밋 이후에 처리할 작업은 @TransactionalEventListener 를 사용한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<SharedSessionContractImplementor, PendingEvents> pendingBySession = new ConcurrentHashMap<>();
+
+    public void publish(EntityManager em, MemberChangeEvent event) {
+        publish(em.unwrap(SessionImplementor.class), event);
+    }
+
+    public void publish(SessionImplementor session, MemberChangeEvent event) {
+        pendingBySession.computeIfAbsent(session, s -> register(session)).add(event);
+    }
+
+    private PendingEvents register(SessionImplementor session) {
+        PendingEvents pending = new PendingEvents();
+        session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) pending);
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) pending);
+        return pending;
+    }
+
+    private class PendingEvents implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final List<MemberChangeEvent> events = new ArrayList<>();
+
+        void add(MemberChangeEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            // 리스너가 만든 변경은 이미 끝난 커밋 전 flush 에 포함되지 않으므로 직접 flush 한다. (Envers AuditProcess 와 동일)
+            while (!events.isEmpty()) {
+                List<MemberChangeEvent> drained = new ArrayList<>(events);
+                events.clear();
+                drained.forEach(eventPublisher::publishEvent);
+                if (!session.isClosed()) {
+                    session.flush();
+                }
+            }
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pendingBySession.remove(session);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package study.datajpa.event;
+
+public enum MemberChangeType {
+    CREATED, UPDATED, DELETED, BULK_AGED, BULK_UPDATED, BULK_DELETED, BULK_IMPORTED, BULK_AGE_INCREMENTED
+}
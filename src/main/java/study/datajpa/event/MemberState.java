@@ -0,0 +1,24 @@
+package study.datajpa.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Objects;
+
+/**
+ * 변경 이벤트에 담기는 회원 상태 스냅샷 (엔티티 참조를 들고 다니지 않는다)
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MemberState {
+
+    private final String username;
+    private final int age;
+    private final Long teamId;
+
+    public boolean isSameTeam(MemberState other) {
+        return other != null && Objects.equals(teamId, other.teamId);
+    }
+}
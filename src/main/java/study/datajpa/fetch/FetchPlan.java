@@ -0,0 +1,84 @@
+package study.datajpa.fetch;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+import java.util.List;
+
+/**
+ * 호출 하나에 적용할 fetch 계획. 이름 있는 그래프(@NamedEntityGraph) 또는 속성 경로("team", "team.members")로 만든다.
+ * FETCH 는 그래프에 없는 연관관계를 LAZY 로, LOAD 는 매핑에 선언된 fetch 타입대로 둔다. (JPA fetchgraph / loadgraph)
+ */
+@Getter
+@ToString
+public class FetchPlan {
+
+    public enum Semantics {
+        FETCH("javax.persistence.fetchgraph"),
+        LOAD("javax.persistence.loadgraph");
+
+        private final String hint;
+
+        Semantics(String hint) {
+            this.hint = hint;
+        }
+
+        public String getHint() {
+            return hint;
+        }
+    }
+
+    private final Class<?> rootType;
+    private final String graphName;
+    private final List<String> attributePaths;
+    private final Semantics semantics;
+
+    private FetchPlan(Class<?> rootType, String graphName, List<String> attributePaths, Semantics semantics) {
+        this.rootType = rootType;
+        this.graphName = graphName;
+        this.attributePaths = attributePaths;
+        this.semantics = semantics;
+    }
+
+    public static FetchPlan named(Class<?> rootType, String graphName) {
+        return new FetchPlan(rootType, graphName, List.of(), Semantics.FETCH);
+    }
+
+    public static FetchPlan attributes(Class<?> rootType, String... attributePaths) {
+        return new FetchPlan(rootType, null, List.of(attributePaths), Semantics.FETCH);
+    }
+
+    /**
+     * 연관관계를 하나도 fetch 하지 않는다. 메소드에 선언된 @EntityGraph 도 무시한다.
+     */
+    public static FetchPlan none(Class<?> rootType) {
+        return attributes(rootType);
+    }
+
+    public FetchPlan asLoadGraph() {
+        return new FetchPlan(rootType, graphName, attributePaths, Semantics.LOAD);
+    }
+
+    EntityGraph<?> toEntityGraph(EntityManager em) {
+        if (graphName != null) {
+            return em.getEntityGraph(graphName);
+        }
+        EntityGraph<?> graph = em.createEntityGraph(rootType);
+        for (String path : attributePaths) {
+            String[] parts = path.split("\\.");
+            if (parts.length == 1) {
+                graph.addAttributeNodes(parts[0]);
+                continue;
+            }
+            Subgraph<?> subgraph = graph.addSubgraph(parts[0]);
+            for (int i = 1; i < parts.length - 1; i++) {
+                subgraph = subgraph.addSubgraph(parts[i]);
+            }
+            subgraph.addAttributeNodes(parts[parts.length - 1]);
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,121 @@
+package study.datajpa.fetch;
+
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 리포지토리에 주입되는 EntityManager 를 감싸서 현재 FetchPlan 을 쿼리 힌트로 붙인다.
+ * 메소드에 선언된 @EntityGraph 힌트는 쿼리 생성 뒤에 설정되므로 계획이 있는 동안에는 그 힌트를 무시한다.
+ */
+class FetchPlanEntityManager implements InvocationHandler {
+
+    private final EntityManager target;
+
+    private FetchPlanEntityManager(EntityManager target) {
+        this.target = target;
+    }
+
+    static EntityManager wrap(EntityManager em) {
+        return (EntityManager) Proxy.newProxyInstance(FetchPlanEntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class}, new FetchPlanEntityManager(em));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        FetchPlan plan = FetchPlans.current();
+        if (plan == null) {
+            return invoke(target, method, args);
+        }
+
+        String name = method.getName();
+        if (name.equals("find") && args[0] == plan.getRootType()) {
+            LockModeType lockMode = null;
+            Map<String, Object> hints = new HashMap<>();
+            for (int i = 2; i < args.length; i++) {
+                if (args[i] instanceof LockModeType) {
+                    lockMode = (LockModeType) args[i];
+                } else if (args[i] instanceof Map) {
+                    ((Map<?, ?>) args[i]).forEach((key, value) -> hints.put(String.valueOf(key), value));
+                }
+            }
+            hints.put(plan.getSemantics().getHint(), plan.toEntityGraph(target));
+            return lockMode == null
+                    ? target.find(plan.getRootType(), args[1], hints)
+                    : target.find(plan.getRootType(), args[1], lockMode, hints);
+        }
+
+        Object result = invoke(target, method, args);
+        if ((name.equals("createQuery") || name.equals("createNamedQuery")) && result instanceof Query
+                && appliesTo((Query) result, plan)) {
+            EntityGraph<?> graph = plan.toEntityGraph(target);
+            ((Query) result).setHint(plan.getSemantics().getHint(), graph);
+            return PlannedQuery.wrap((Query) result, method.getReturnType());
+        }
+        return result;
+    }
+
+    /**
+     * 결과가 rootType 엔티티 하나인 JPQL/Criteria 쿼리에만 적용한다.
+     */
+    private static boolean appliesTo(Query query, FetchPlan plan) {
+        try {
+            Type[] returnTypes = query.unwrap(org.hibernate.query.Query.class).getReturnTypes();
+            return returnTypes.length == 1
+                    && returnTypes[0] instanceof EntityType
+                    && ((EntityType) returnTypes[0]).getAssociatedEntityName().equals(plan.getRootType().getName());
+        } catch (RuntimeException e) {
+            return false; // 네이티브 쿼리 등
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 이후에 들어오는 fetchgraph/loadgraph 힌트(메소드의 @EntityGraph)를 무시하는 Query
+     */
+    private static class PlannedQuery implements InvocationHandler {
+
+        private final Query target;
+
+        private PlannedQuery(Query target) {
+            this.target = target;
+        }
+
+        static Object wrap(Query query, Class<?> type) {
+            Class<?> queryType = TypedQuery.class.isAssignableFrom(type) ? TypedQuery.class : Query.class;
+            return Proxy.newProxyInstance(FetchPlanEntityManager.class.getClassLoader(),
+                    new Class<?>[]{queryType}, new PlannedQuery(query));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("setHint") && isGraphHint((String) args[0])) {
+                return proxy;
+            }
+            Object result = FetchPlanEntityManager.invoke(target, method, args);
+            return result == target ? proxy : result;
+        }
+
+        private static boolean isGraphHint(String hint) {
+            return FetchPlan.Semantics.FETCH.getHint().equals(hint) || FetchPlan.Semantics.LOAD.getHint().equals(hint);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.fetch;
+
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.repository.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * 모든 리포지토리가 FetchPlanEntityManager 를 쓰도록 한다. (@EnableJpaRepositories(repositoryFactoryBeanClass))
+ * 커스텀 구현(MemberRepositoryImpl)은 EntityManager 를 직접 주입받으므로 적용되지 않는다.
+ */
+public class FetchPlanJpaRepositoryFactoryBean<T extends Repository<S, ID>, S, ID> extends JpaRepositoryFactoryBean<T, S, ID> {
+
+    public FetchPlanJpaRepositoryFactoryBean(Class<? extends T> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Override
+    @PersistenceContext
+    public void setEntityManager(EntityManager entityManager) {
+        super.setEntityManager(FetchPlanEntityManager.wrap(entityManager));
+    }
+}
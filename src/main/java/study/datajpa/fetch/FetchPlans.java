@@ -0,0 +1,34 @@
+package study.datajpa.fetch;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 fetch 계획.
+ * <pre>
+ * Page&lt;Member&gt; page = FetchPlans.with(FetchPlan.attributes(Member.class, "team"),
+ *         () -&gt; memberRepository.findByAge(10, pageable));
+ * </pre>
+ * 블록 안에서 실행되는 리포지토리 쿼리 중 결과가 rootType 엔티티인 쿼리와 findById 에만 적용된다. (count 쿼리, 네이티브 쿼리 제외)
+ */
+public class FetchPlans {
+
+    private static final ThreadLocal<FetchPlan> current = new ThreadLocal<>();
+
+    public static FetchPlan current() {
+        return current.get();
+    }
+
+    public static <T> T with(FetchPlan plan, Supplier<T> action) {
+        FetchPlan previous = current.get();
+        current.set(plan);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.guard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 대량 처리 트랜잭션 표시. @Transactional 과 함께 쓴다.
+ * 리포지토리 호출이 끝날 때마다 영속성 컨텍스트의 엔티티 수가 flushSize 이상이면 flush + clear 한다. (PersistenceContextGuard)
+ * clear 이후에는 이전에 받은 엔티티가 준영속 상태가 되므로 다시 조회하거나 id 로만 다뤄야 한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BatchTransaction {
+
+    /**
+     * 0 이면 persistence.guard.batch-flush-size
+     */
+    int flushSize() default 0;
+}
@@ -0,0 +1,43 @@
+package study.datajpa.guard;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.LazyInitializationException;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+import study.datajpa.pool.PoolMetrics;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청에서 빠져나온 LazyInitializationException (OSIV 없이 닫힌 세션의 지연 로딩)을 엔드포인트별로 센다.
+ * 직렬화 중에 나면 HttpMessageNotWritableException 으로 감싸져 오므로 원인을 따라간다.
+ * 세기만 하고 처리는 다음 리졸버에 넘긴다. (null 반환)
+ */
+@Component
+@RequiredArgsConstructor
+public class LazyLoadExceptionResolver implements HandlerExceptionResolver, Ordered {
+
+    private final LazyLoadGuard lazyLoadGuard;
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof LazyLoadGuard.OutsideTransactionLoadException) {
+                return null;
+            }
+            if (cause instanceof LazyInitializationException) {
+                lazyLoadGuard.recordClosedSession(PoolMetrics.boundEndpoint());
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
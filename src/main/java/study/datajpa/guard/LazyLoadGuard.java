@@ -0,0 +1,125 @@
+package study.datajpa.guard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.pool.PoolMetrics;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 트랜잭션 밖에서 일어나는 지연 로딩(프록시 초기화, 컬렉션 초기화)을 잡는다.
+ * OSIV 를 켜면 뷰 렌더링(JSON 직렬화) 중의 지연 로딩이 auto-commit 커넥션으로 조용히 실행되어 요청 끝까지 커넥션을 붙잡는다.
+ * 이 가드는 세션은 열려 있지만 트랜잭션이 없는 경우(OSIV, 트랜잭션 없는 EntityManager)를 엔드포인트별로 세고
+ * 정책에 따라 경고하거나 실패시킨다.
+ * - ALLOW: 세기만 한다. WARN: 경고 로그. FAIL: LazyInitializationException (테스트 설정)
+ * OSIV 를 끄면 세션이 닫혀 있으므로 로딩 이벤트 없이 Hibernate 가 바로 LazyInitializationException 을 던진다.
+ * 이 경우는 LazyLoadExceptionResolver 가 요청에서 빠져나온 예외를 보고 recordClosedSession 으로 따로 센다.
+ */
+@Slf4j
+@Component
+public class LazyLoadGuard implements LoadEventListener, InitializeCollectionEventListener {
+
+    public enum Policy {
+        ALLOW, WARN, FAIL
+    }
+
+    private static final String NO_ENDPOINT = "(none)";
+
+    private final EntityManagerFactory emf;
+    private final Policy policy;
+    private final Map<String, LongAdder> outsideTransaction = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> closedSession = new ConcurrentHashMap<>();
+
+    public LazyLoadGuard(EntityManagerFactory emf,
+                         @Value("${persistence.lazy-load.outside-transaction:WARN}") Policy policy) {
+        this.emf = emf;
+        this.policy = policy;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.LOAD, this); // 로딩 전에 확인
+        registry.prependListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) {
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) { // 프록시 초기화
+            check(event.getSession(), event.getEntityClassName() + "#" + event.getEntityId());
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        check(event.getSession(), event.getCollection().getRole());
+    }
+
+    /**
+     * 엔드포인트별 트랜잭션 밖 지연 로딩 횟수 (세션은 열려 있던 경우)
+     */
+    public Map<String, Long> snapshot() {
+        return snapshot(outsideTransaction);
+    }
+
+    /**
+     * 엔드포인트별 닫힌 세션의 지연 로딩(LazyInitializationException) 횟수
+     */
+    public Map<String, Long> closedSessionSnapshot() {
+        return snapshot(closedSession);
+    }
+
+    void recordClosedSession(String endpoint) {
+        closedSession.computeIfAbsent(endpoint == null ? NO_ENDPOINT : endpoint, e -> new LongAdder()).increment();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counts) {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counts.forEach((endpoint, count) -> snapshot.put(endpoint, count.sum()));
+        return snapshot;
+    }
+
+    private void check(SharedSessionContractImplementor session, String target) {
+        if (session.isTransactionInProgress()) {
+            return;
+        }
+        String endpoint = PoolMetrics.boundEndpoint();
+        outsideTransaction.computeIfAbsent(endpoint == null ? NO_ENDPOINT : endpoint, e -> new LongAdder()).increment();
+        switch (policy) {
+            case FAIL:
+                throw new OutsideTransactionLoadException("트랜잭션 밖 지연 로딩: " + target + " (endpoint=" + endpoint
+                        + "), 조회할 때 fetch join / 엔티티 그래프로 함께 가져오세요.");
+            case WARN:
+                log.warn("lazy loading outside transaction: {} (endpoint={})", target, endpoint);
+                break;
+            default:
+        }
+    }
+
+    /**
+     * 이 가드가 던진 예외. 이미 outsideTransaction 으로 셌으므로 닫힌 세션 집계에서 뺀다.
+     */
+    static class OutsideTransactionLoadException extends LazyInitializationException {
+
+        OutsideTransactionLoadException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package study.datajpa.guard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 트랜잭션별 영속성 컨텍스트 크기(관리 중인 엔티티 수)를 리포지토리 호출 경계마다 확인한다.
+ * - @BatchTransaction: flushSize 이상이면 flush + clear 해서 flush/dirty checking 비용과 메모리를 일정하게 유지한다.
+ * - 그 밖의 트랜잭션: warn-size 를 넘으면 트랜잭션당 한 번 경고한다.
+ * 엔티티 조작 도중이 아니라 리포지토리 호출이 끝난 시점에만 clear 하므로 Hibernate 이벤트 처리 중에 끼어들지 않는다.
+ */
+@Slf4j
+@Aspect
+@Component
+@ConditionalOnProperty(name = "persistence.guard.enabled", havingValue = "true", matchIfMissing = true)
+public class PersistenceContextGuard {
+
+    private static final ThreadLocal<Integer> batchFlushSize = new ThreadLocal<>();
+    private static final Object STATE_KEY = PersistenceContextGuard.class.getName() + ".STATE";
+
+    private final EntityManager em;
+    private final int defaultBatchFlushSize;
+    private final int warnSize;
+    private final LongAdder batchFlushes = new LongAdder();
+    private final LongAdder warnings = new LongAdder();
+
+    public PersistenceContextGuard(EntityManager em,
+                                   @Value("${persistence.guard.batch-flush-size:500}") int defaultBatchFlushSize,
+                                   @Value("${persistence.guard.warn-size:5000}") int warnSize) {
+        this.em = em;
+        this.defaultBatchFlushSize = defaultBatchFlushSize;
+        this.warnSize = warnSize;
+    }
+
+    @Around("@annotation(batchTransaction)")
+    public Object markBatch(ProceedingJoinPoint joinPoint, BatchTransaction batchTransaction) throws Throwable {
+        Integer previous = batchFlushSize.get();
+        batchFlushSize.set(batchTransaction.flushSize() > 0 ? batchTransaction.flushSize() : defaultBatchFlushSize);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (previous == null) {
+                batchFlushSize.remove();
+            } else {
+                batchFlushSize.set(previous);
+            }
+        }
+    }
+
+    @Around("this(org.springframework.data.repository.Repository) || @within(org.springframework.stereotype.Repository)")
+    public Object afterRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        check(joinPoint);
+        return result;
+    }
+
+    public long getBatchFlushes() {
+        return batchFlushes.sum();
+    }
+
+    public long getWarnings() {
+        return warnings.sum();
+    }
+
+    private void check(ProceedingJoinPoint joinPoint) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        TransactionState state = transactionState();
+        if (state.completing) {
+            return; // 커밋 중(변경 이벤트 리스너 등)에는 flush/clear 하지 않는다.
+        }
+        int managed = em.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities();
+        Integer flushSize = batchFlushSize.get();
+        if (flushSize != null) {
+            if (managed >= flushSize) {
+                em.flush();
+                em.clear();
+                batchFlushes.increment();
+            }
+        } else if (managed > warnSize && !state.warned) {
+            state.warned = true;
+            warnings.increment();
+            log.warn("persistence context holds {} entities (> {}) after {}. consider @BatchTransaction or paging.",
+                    managed, warnSize, joinPoint.getSignature().toShortString());
+        }
+    }
+
+    private TransactionState transactionState() {
+        TransactionState state = (TransactionState) TransactionSynchronizationManager.getResource(STATE_KEY);
+        if (state != null) {
+            return state;
+        }
+        TransactionState created = new TransactionState();
+        TransactionSynchronizationManager.bindResource(STATE_KEY, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                created.completing = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(STATE_KEY);
+            }
+        });
+        return created;
+    }
+
+    private static class TransactionState {
+        private boolean warned;
+        private boolean completing;
+    }
+}
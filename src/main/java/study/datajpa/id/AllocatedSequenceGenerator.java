@@ -0,0 +1,145 @@
+package study.datajpa.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+import study.datajpa.shard.ShardContext;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 엔티티마다 자기 시퀀스(sequence_name)에서 block-size 만큼씩 id 를 확보하는 생성기. (IdAllocationProperties)
+ * - DDL 의 increment 와 optimizer(pooled / pooled-lo)는 설정값으로 맞춘다.
+ * - 블록 상태는 샤드(ShardContext)별로 따로 둔다. 샤드마다 시퀀스 값의 범위가 다르기 때문이다. (ShardSchemaInitializer)
+ * - prefetch 를 켜면 다음 시퀀스 값을 별도 커넥션으로 미리 가져와서 블록이 바뀌는 insert 도 시퀀스 왕복을 기다리지 않는다.
+ * 시퀀스를 다시 시작하면(SequenceRestarts) resetAll 로 메모리에 남은 블록을 버린다.
+ */
+public class AllocatedSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "study.datajpa.id.AllocatedSequenceGenerator";
+
+    private static final int NO_SHARD = -1;
+    private static final Set<AllocatedSequenceGenerator> generators = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private String optimizerName;
+    private int blockSize;
+    private long initialValue;
+    private Class<?> returnClass;
+    private boolean prefetch;
+    private ConnectionProvider connectionProvider;
+    private JdbcEnvironment jdbcEnvironment;
+    private volatile String nextValueSql;
+
+    private volatile Map<Integer, Allocation> allocations = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        IdAllocationProperties properties = (IdAllocationProperties) serviceRegistry.getService(ConfigurationService.class)
+                .getSettings().get(IdAllocationProperties.SETTING);
+        if (properties == null) {
+            properties = new IdAllocationProperties();
+        }
+        params.setProperty(INCREMENT_PARAM, String.valueOf(properties.blockSizeOf(params.getProperty(JPA_ENTITY_NAME))));
+        params.setProperty(OPT_PARAM, properties.getOptimizer());
+        super.configure(type, params, serviceRegistry);
+
+        this.optimizerName = properties.getOptimizer();
+        this.blockSize = getOptimizer().getIncrementSize(); // 기존 시퀀스에 맞춰 조정됐을 수 있다.
+        this.initialValue = ConfigurationHelper.getInt(INITIAL_PARAM, params, DEFAULT_INITIAL_VALUE);
+        this.returnClass = type.getReturnedClass();
+        this.prefetch = properties.isPrefetch();
+        this.connectionProvider = serviceRegistry.getService(ConnectionProvider.class);
+        this.jdbcEnvironment = serviceRegistry.getService(JdbcEnvironment.class);
+        generators.add(this);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        Integer shard = ShardContext.current();
+        Allocation allocation = allocations.computeIfAbsent(shard == null ? NO_SHARD : shard, Allocation::new);
+        return allocation.generate(getDatabaseStructure().buildCallback(session));
+    }
+
+    /**
+     * 모든 생성기의 블록(과 미리 가져온 시퀀스 값)을 버린다. 다음 insert 부터 시퀀스에서 새 블록을 받는다.
+     */
+    public static void resetAll() {
+        synchronized (generators) {
+            generators.forEach(generator -> generator.allocations = new ConcurrentHashMap<>());
+        }
+    }
+
+    private long fetchNextValue(int shard) {
+        if (shard != NO_SHARD) {
+            return ShardContext.call(shard, () -> fetchNextValue(NO_SHARD));
+        }
+        try {
+            Connection connection = connectionProvider.getConnection();
+            try (PreparedStatement ps = connection.prepareStatement(nextValueSql());
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            } finally {
+                connectionProvider.closeConnection(connection);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("시퀀스 값 조회 실패: " + getDatabaseStructure().getName(), e);
+        }
+    }
+
+    private String nextValueSql() {
+        if (nextValueSql == null) { // 물리 시퀀스 이름은 스키마 등록 이후에 정해진다.
+            nextValueSql = jdbcEnvironment.getDialect().getSequenceNextValString(getDatabaseStructure().getName());
+        }
+        return nextValueSql;
+    }
+
+    private class Allocation {
+
+        private final Optimizer optimizer = OptimizerFactory.buildOptimizer(optimizerName, returnClass, blockSize, initialValue);
+        private final SequencePrefetcher prefetcher;
+
+        Allocation(int shard) {
+            this.prefetcher = prefetch ? new SequencePrefetcher(() -> fetchNextValue(shard)) : null;
+        }
+
+        Serializable generate(AccessCallback sessionCallback) {
+            if (prefetcher == null) {
+                return optimizer.generate(sessionCallback);
+            }
+            return optimizer.generate(new AccessCallback() {
+                @Override
+                public IntegralDataTypeHolder getNextValue() {
+                    long next = prefetcher.next(() -> sessionCallback.getNextValue().makeValue().longValue());
+                    return IdentifierGeneratorHelper.getIntegralDataTypeHolder(returnClass).initialize(next);
+                }
+
+                @Override
+                public String getTenantIdentifier() {
+                    return sessionCallback.getTenantIdentifier();
+                }
+            });
+        }
+    }
+}
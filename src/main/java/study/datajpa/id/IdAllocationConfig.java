@@ -0,0 +1,16 @@
+package study.datajpa.id;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdAllocationProperties.class)
+public class IdAllocationConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer idAllocationSettings(IdAllocationProperties properties) {
+        return hibernateProperties -> hibernateProperties.put(IdAllocationProperties.SETTING, properties);
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.id;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 엔티티별 시퀀스의 id 할당 방식. AllocatedSequenceGenerator 가 Hibernate 설정(SETTING)으로 받아서 쓴다.
+ * - optimizer: pooled(시퀀스 값 = 블록의 끝) | pooled-lo(시퀀스 값 = 블록의 시작) | none(insert 마다 시퀀스 호출)
+ * - block-size: 시퀀스 한 번에 확보하는 id 수(= 시퀀스 increment). block-sizes.<엔티티 이름> 으로 엔티티별로 바꾼다.
+ * - prefetch: 블록을 다 쓰기 전에 다음 시퀀스 값을 백그라운드에서 미리 가져온다.
+ * 이미 만들어진 시퀀스의 increment 와 block-size 가 다르면 Hibernate 가 시작할 때 실패하므로 바꿀 때는 시퀀스를 다시 만든다.
+ */
+@Getter @Setter
+@ConfigurationProperties("id.allocation")
+public class IdAllocationProperties {
+
+    static final String SETTING = IdAllocationProperties.class.getName();
+
+    private String optimizer = "pooled-lo";
+    private int blockSize = 50;
+    private Map<String, Integer> blockSizes = new HashMap<>();
+    private boolean prefetch;
+
+    public int blockSizeOf(String entityName) {
+        if ("none".equals(optimizer)) {
+            return 1;
+        }
+        return blockSizes.getOrDefault(entityName.toLowerCase(Locale.ROOT), blockSize);
+    }
+}
@@ -0,0 +1,45 @@
+package study.datajpa.id;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+
+/**
+ * 시퀀스 값 하나(= id 블록 하나)를 항상 미리 요청해 둔다. 값을 꺼내면 곧바로 다음 값을 백그라운드에서 요청한다.
+ * 미리 가져온 값이 실패하면 호출한 쪽(세션 커넥션)에서 직접 가져온다. 종료/리셋 때 쓰지 않은 블록은 버려진다.
+ */
+@Slf4j
+final class SequencePrefetcher {
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "id-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongSupplier fetcher;
+    private Future<Long> pending;
+
+    SequencePrefetcher(LongSupplier fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    synchronized long next(LongSupplier direct) {
+        Future<Long> ready = pending;
+        pending = executor.submit(fetcher::getAsLong);
+        if (ready != null) {
+            try {
+                return ready.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.warn("sequence prefetch failed, fetching directly", e.getCause());
+            }
+        }
+        return direct.getAsLong();
+    }
+}
@@ -0,0 +1,33 @@
+package study.datajpa.id;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 적재(DatasetGenerator)나 샤드 초기화(ShardSchemaInitializer)처럼 id 를 직접 정한 뒤 시퀀스를 옮길 때 쓴다.
+ * pooled 는 시퀀스 값을 블록의 끝으로 보므로 next + increment - 1 로 다시 시작해야 블록이 next 부터 시작한다.
+ * (pooled-lo 와 increment 1 인 시퀀스는 increment - 1 개를 건너뛸 뿐이다.) 옮긴 뒤 메모리에 남은 블록을 버린다.
+ */
+public class SequenceRestarts {
+
+    public static void restartAll(Connection connection, long next) throws SQLException {
+        Map<String, Long> increments = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "select sequence_name, increment from information_schema.sequences where sequence_schema = 'PUBLIC'")) {
+            while (rs.next()) {
+                increments.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (Map.Entry<String, Long> sequence : increments.entrySet()) {
+                statement.execute("alter sequence " + sequence.getKey() + " restart with " + (next + sequence.getValue() - 1));
+            }
+        }
+        AllocatedSequenceGenerator.resetAll();
+    }
+}
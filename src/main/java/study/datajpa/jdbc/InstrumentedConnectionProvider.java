@@ -0,0 +1,119 @@
+package study.datajpa.jdbc;
+
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import study.datajpa.deadline.RequestDeadline;
+import study.datajpa.sql.SqlObserver;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate 가 쓰는 커넥션의 Statement 를 감싸서 실행마다
+ * - 현재 RequestDeadline 을 적용하고 (남은 예산을 query timeout 으로, 취소 대상 등록)
+ * - 실행 시간과 바인딩 값을 SqlObserver 에 넘긴다.
+ * DataSource 빈은 그대로 두고 Hibernate 의 커넥션 획득 경로에만 끼워 넣는다. (JdbcInstrumentationConfig)
+ */
+public class InstrumentedConnectionProvider extends DatasourceConnectionProviderImpl {
+
+    private final SqlObserver sqlObserver;
+
+    public InstrumentedConnectionProvider(DataSource dataSource, SqlObserver sqlObserver) {
+        this.sqlObserver = sqlObserver;
+        setDataSource(dataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedConnectionProvider.invoke(target, method, args);
+            if (result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return Proxy.newProxyInstance(InstrumentedConnectionProvider.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()}, new StatementHandler((Statement) result, sql));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final List<Object> binds;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.binds = target instanceof PreparedStatement ? new ArrayList<>() : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (binds != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (binds != null && name.equals("clearParameters")) {
+                binds.clear();
+            }
+            if (!name.startsWith("execute")) {
+                return InstrumentedConnectionProvider.invoke(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            RequestDeadline deadline = RequestDeadline.current();
+            if (deadline != null) {
+                deadline.beforeExecute(target);
+            }
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = InstrumentedConnectionProvider.invoke(target, method, args);
+                failed = false;
+                return result;
+            } finally {
+                sqlObserver.executed(sql, binds, System.nanoTime() - start, failed);
+                if (deadline != null) {
+                    deadline.afterExecute(target);
+                }
+            }
+        }
+
+        private void bind(int index, Object value) {
+            while (binds.size() < index) {
+                binds.add(null);
+            }
+            binds.set(index - 1, value);
+        }
+    }
+}
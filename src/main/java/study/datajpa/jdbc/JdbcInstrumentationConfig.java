@@ -0,0 +1,19 @@
+package study.datajpa.jdbc;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.sql.SqlObserver;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class JdbcInstrumentationConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer instrumentedConnectionProvider(DataSource dataSource, SqlObserver sqlObserver) {
+        return properties -> properties.put(AvailableSettings.CONNECTION_PROVIDER,
+                new InstrumentedConnectionProvider(dataSource, sqlObserver));
+    }
+}
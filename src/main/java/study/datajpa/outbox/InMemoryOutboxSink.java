@@ -0,0 +1,39 @@
+package study.datajpa.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * 로컬/테스트용 싱크. 최근 MAX_SIZE 개의 payload 만 보관한다.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private static final int MAX_SIZE = 10_000;
+
+    private final ConcurrentLinkedDeque<String> payloads = new ConcurrentLinkedDeque<>();
+
+    @Override
+    public void send(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            payloads.addLast(event.getPayload());
+            if (payloads.size() > MAX_SIZE) {
+                payloads.pollFirst();
+            }
+        }
+    }
+
+    public List<String> getPayloads() {
+        return new ArrayList<>(payloads);
+    }
+
+    public void clear() {
+        payloads.clear();
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.OutboxEvent;
+import study.datajpa.event.MemberChangeEvent;
+import study.datajpa.event.MemberChangeType;
+import study.datajpa.repository.OutboxEventRepository;
+
+/**
+ * 회원 변경 이벤트를 같은 트랜잭션 안에서 아웃박스 테이블에 기록한다.
+ * 생성, 팀 이동(changeTeam), 삭제, 벌크 연산만 기록하고 팀이 바뀌지 않은 단순 수정은 제외한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRecorder {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void record(MemberChangeEvent event) {
+        if (event.getType() == MemberChangeType.UPDATED && !event.isTeamChanged()) {
+            return;
+        }
+        outboxEventRepository.save(new OutboxEvent(event.getType(), event.getMemberId(), toJson(event)));
+    }
+
+    private String toJson(MemberChangeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("아웃박스 이벤트 직렬화 실패: " + event, e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.OutboxEvent;
+import study.datajpa.repository.OutboxEventRepository;
+
+import java.util.List;
+
+/**
+ * 아웃박스를 주기적으로 배치 단위로 비운다. 쓰기 경로(회원 변경 트랜잭션)에는 INSERT 한 번만 추가된다.
+ * 싱크 전송 후 삭제하므로 삭제 커밋 전에 장애가 나면 같은 이벤트가 다시 발행될 수 있다. (at-least-once)
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink sink,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:1000}",
+            initialDelayString = "${outbox.relay.initial-delay:1000}")
+    public void scheduledRelay() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.warn("outbox relay failed", e);
+        }
+    }
+
+    /**
+     * 아웃박스가 빌 때까지 배치를 발행한다.
+     * @return 발행한 이벤트 수
+     */
+    public int relay() {
+        int total = 0;
+        int sent;
+        do {
+            sent = transactionTemplate.execute(status -> relayBatch());
+            total += sent;
+        } while (sent == batchSize);
+        return total;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        sink.send(events);
+        outboxEventRepository.deleteAllInBatch(events);
+        return events.size();
+    }
+}
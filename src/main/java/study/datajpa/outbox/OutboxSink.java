@@ -0,0 +1,13 @@
+package study.datajpa.outbox;
+
+import study.datajpa.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * 아웃박스 이벤트를 외부로 내보내는 대상. 실패하면 예외를 던지고, 릴레이는 해당 배치를 다음 주기에 다시 보낸다. (at-least-once)
+ */
+public interface OutboxSink {
+
+    void send(List<OutboxEvent> events);
+}
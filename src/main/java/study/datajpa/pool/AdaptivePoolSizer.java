@@ -0,0 +1,114 @@
+package study.datajpa.pool;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 관측된 커넥션 획득 대기 시간과 DB 점유 시간을 보고 풀 크기를 [min-size, max-size] 안에서 조절한다.
+ * - 대기가 길거나 타임아웃이 났는데 DB 점유 시간이 기준치 수준이면: 커넥션이 부족한 것 -> 1 증가
+ * - DB 점유 시간이 기준치보다 크게 늘었으면: DB 가 포화된 것 -> 늘리지 않고 1 감소
+ * - 대기가 없고 절반 이상 놀고 있으면: 1 감소
+ * 기준치는 대기가 없을 때의 점유 시간 EWMA 로 잡는다.
+ * minimumIdle 은 처음 설정된 값을 기억해 두고 크기를 바꿀 때마다 min(설정값, 새 크기)로 맞춘다. (줄였다 늘려도 복원된다)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "pool.adaptive.enabled", havingValue = "true")
+public class AdaptivePoolSizer {
+
+    private static final double SATURATION_FACTOR = 1.5;
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final HikariDataSource hikari;
+    private final PoolMetrics poolMetrics;
+    private final int minSize;
+    private final int maxSize;
+    private final double waitThresholdMillis;
+
+    private int configuredMinimumIdle = -1;
+    private PoolMetrics.Snapshot previous;
+    private double baselineUsageMillis;
+
+    public AdaptivePoolSizer(DataSource dataSource,
+                             PoolMetrics poolMetrics,
+                             @Value("${pool.adaptive.min-size:5}") int minSize,
+                             @Value("${pool.adaptive.max-size:30}") int maxSize,
+                             @Value("${pool.adaptive.wait-threshold-millis:5}") double waitThresholdMillis) {
+        this.hikari = unwrap(dataSource);
+        this.poolMetrics = poolMetrics;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.waitThresholdMillis = waitThresholdMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${pool.adaptive.interval:5000}")
+    public synchronized void adjust() {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return; // 아직 풀이 시작되지 않음
+        }
+        HikariConfigMXBean config = hikari.getHikariConfigMXBean();
+        if (configuredMinimumIdle < 0) {
+            configuredMinimumIdle = config.getMinimumIdle(); // 풀이 시작된 뒤에야 기본값(= 최대 크기)이 채워진다.
+        }
+
+        PoolMetrics.Snapshot current = poolMetrics.snapshot();
+        if (previous == null) {
+            previous = current;
+            return;
+        }
+        double avgWaitMillis = windowAverage(previous.getAcquire(), current.getAcquire());
+        double avgUsageMillis = windowAverage(previous.getUsage(), current.getUsage());
+        long newTimeouts = current.getTimeouts() - previous.getTimeouts();
+        previous = current;
+
+        if (avgWaitMillis < waitThresholdMillis && avgUsageMillis > 0) {
+            baselineUsageMillis = baselineUsageMillis == 0
+                    ? avgUsageMillis
+                    : (1 - EWMA_WEIGHT) * baselineUsageMillis + EWMA_WEIGHT * avgUsageMillis;
+        }
+        boolean saturated = baselineUsageMillis > 0 && avgUsageMillis > baselineUsageMillis * SATURATION_FACTOR;
+        boolean starved = newTimeouts > 0 || avgWaitMillis >= waitThresholdMillis || pool.getThreadsAwaitingConnection() > 0;
+        boolean underused = !starved && pool.getActiveConnections() * 2 < config.getMaximumPoolSize();
+
+        int size = config.getMaximumPoolSize();
+        int newSize = size;
+        if (saturated) {
+            newSize = size - 1;
+        } else if (starved) {
+            newSize = size + 1;
+        } else if (underused) {
+            newSize = size - 1;
+        }
+        newSize = Math.max(minSize, Math.min(maxSize, newSize));
+
+        if (newSize != size) {
+            log.info("pool resize {} -> {} (wait={}ms, usage={}ms, baseline={}ms, timeouts={})",
+                    size, newSize, avgWaitMillis, avgUsageMillis, baselineUsageMillis, newTimeouts);
+            config.setMaximumPoolSize(newSize);
+            config.setMinimumIdle(Math.min(configuredMinimumIdle, newSize));
+        }
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class); // p6spy 가 감싼 경우 포함
+        } catch (SQLException e) {
+            throw new IllegalStateException("HikariDataSource 가 아니면 풀 크기를 조절할 수 없습니다.", e);
+        }
+    }
+
+    private double windowAverage(PoolMetrics.TimerSnapshot before, PoolMetrics.TimerSnapshot after) {
+        long count = after.getCount() - before.getCount();
+        return count == 0 ? 0.0 : (after.getTotalMicros() - before.getTotalMicros()) / 1000.0 / count;
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.pool;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청 스레드에 "HTTP메소드 URL패턴" 을 바인딩해서 커넥션 획득/점유 시간을 엔드포인트별로 집계하게 한다.
+ * OSIV 가 커넥션을 반납하는 afterCompletion 보다 늦게 해제되도록 가장 바깥 인터셉터로 등록한다. (PoolWebConfig)
+ * 비동기 요청(WebAsyncTask)은 첫 디스패치에서 시작 시각을 남기고 재디스패치의 afterCompletion 에서 요청 시간을 기록한다.
+ */
+@RequiredArgsConstructor
+public class ConnectionHoldTimeInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STARTED_AT = ConnectionHoldTimeInterceptor.class.getName() + ".STARTED_AT";
+
+    private final PoolMetrics poolMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        PoolMetrics.bindEndpoint(endpoint(request));
+        if (request.getAttribute(STARTED_AT) == null) {
+            request.setAttribute(STARTED_AT, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        PoolMetrics.unbindEndpoint(); // 요청 스레드는 풀로 돌아간다.
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        PoolMetrics.unbindEndpoint();
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt != null) {
+            poolMetrics.recordRequest(endpoint(request), (System.nanoTime() - (Long) startedAt) / 1000);
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
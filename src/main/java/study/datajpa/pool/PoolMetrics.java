@@ -0,0 +1,169 @@
+package study.datajpa.pool;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari 커넥션 풀 계측. 커넥션 획득 대기 시간(acquire)과 커넥션 점유 시간(usage = 빌린 뒤 반납까지)을 분리해서 모은다.
+ * 점유 시간은 ConnectionHoldTimeInterceptor 가 설정한 현재 엔드포인트 기준으로도 집계된다.
+ * 엔드포인트별 요청 시간도 함께 모아서 요청 시간 중 커넥션을 쥐고 있던 비율(holdRatio)을 보여준다.
+ * OSIV 를 켜면 요청 하나가 커넥션 하나를 끝까지 쥐므로 1 에 가깝고, 끄면 쿼리 구간만큼으로 줄어든다.
+ */
+@Component
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private static final ThreadLocal<String> currentEndpoint = new ThreadLocal<>();
+
+    private final Timer acquire = new Timer();
+    private final Timer usage = new Timer();
+    private final LongAdder timeouts = new LongAdder();
+    private final Map<String, EndpointTimers> endpoints = new ConcurrentHashMap<>();
+
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                long micros = TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos);
+                acquire.record(micros);
+                endpointTimers().ifPresent(timers -> timers.acquire.record(micros));
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                long micros = TimeUnit.MILLISECONDS.toMicros(elapsedBorrowedMillis);
+                usage.record(micros);
+                endpointTimers().ifPresent(timers -> timers.hold.record(micros));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public static void bindEndpoint(String endpoint) {
+        currentEndpoint.set(endpoint);
+    }
+
+    public static void unbindEndpoint() {
+        currentEndpoint.remove();
+    }
+
+    public static String boundEndpoint() {
+        return currentEndpoint.get();
+    }
+
+    /**
+     * 요청 하나의 처리 시간(첫 디스패치부터 응답 완료까지)
+     */
+    public void recordRequest(String endpoint, long elapsedMicros) {
+        endpoints.computeIfAbsent(endpoint, e -> new EndpointTimers()).request.record(elapsedMicros);
+    }
+
+    private Optional<EndpointTimers> endpointTimers() {
+        String endpoint = currentEndpoint.get();
+        if (endpoint == null) {
+            return Optional.empty();
+        }
+        return Optional.of(endpoints.computeIfAbsent(endpoint, e -> new EndpointTimers()));
+    }
+
+    public Snapshot snapshot() {
+        PoolStats stats = poolStats;
+        Map<String, EndpointSnapshot> endpointSnapshots = new TreeMap<>();
+        endpoints.forEach((endpoint, timers) ->
+                endpointSnapshots.put(endpoint, new EndpointSnapshot(timers.acquire.snapshot(), timers.hold.snapshot(), timers.request.snapshot())));
+        return new Snapshot(
+                stats == null ? 0 : stats.getActiveConnections(),
+                stats == null ? 0 : stats.getIdleConnections(),
+                stats == null ? 0 : stats.getPendingThreads(),
+                stats == null ? 0 : stats.getMaxConnections(),
+                timeouts.sum(),
+                acquire.snapshot(),
+                usage.snapshot(),
+                endpointSnapshots);
+    }
+
+    /**
+     * 카운트/합계/최대값만 lock-free 로 누적한다. 단위는 마이크로초.
+     */
+    static class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+        void record(long micros) {
+            count.increment();
+            totalMicros.add(micros);
+            maxMicros.accumulate(micros);
+        }
+
+        TimerSnapshot snapshot() {
+            return new TimerSnapshot(count.sum(), totalMicros.sum(), maxMicros.get());
+        }
+    }
+
+    static class EndpointTimers {
+        private final Timer acquire = new Timer();
+        private final Timer hold = new Timer();
+        private final Timer request = new Timer();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class TimerSnapshot {
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+
+        public double getAverageMillis() {
+            return count == 0 ? 0.0 : totalMicros / 1000.0 / count;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class EndpointSnapshot {
+        private final TimerSnapshot acquire;
+        private final TimerSnapshot hold;
+        private final TimerSnapshot request;
+
+        public double getHoldRatio() {
+            return request.getTotalMicros() == 0 ? 0.0 : (double) hold.getTotalMicros() / request.getTotalMicros();
+        }
+
+        public double getBorrowsPerRequest() {
+            return request.getCount() == 0 ? 0.0 : (double) hold.getCount() / request.getCount();
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Snapshot {
+        private final int active;
+        private final int idle;
+        private final int pending;
+        private final int max;
+        private final long timeouts;
+        private final TimerSnapshot acquire;
+        private final TimerSnapshot usage;
+        private final Map<String, EndpointSnapshot> endpoints;
+    }
+}
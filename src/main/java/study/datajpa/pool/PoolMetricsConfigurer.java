@@ -0,0 +1,27 @@
+package study.datajpa.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 풀이 시작되기 전(첫 getConnection 이전)에 HikariDataSource 에 PoolMetrics 를 연결한다.
+ */
+@Component
+public class PoolMetricsConfigurer implements BeanPostProcessor {
+
+    private final ObjectProvider<PoolMetrics> poolMetrics;
+
+    public PoolMetricsConfigurer(ObjectProvider<PoolMetrics> poolMetrics) {
+        this.poolMetrics = poolMetrics;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource) {
+            ((HikariDataSource) bean).setMetricsTrackerFactory(poolMetrics.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,20 @@
+package study.datajpa.pool;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class PoolWebConfig implements WebMvcConfigurer {
+
+    private final PoolMetrics poolMetrics;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConnectionHoldTimeInterceptor(poolMetrics))
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.query;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class QueryIssue {
+
+    public enum Severity {
+        WARN, ERROR
+    }
+
+    private final Severity severity;
+    private final String message;
+
+    public boolean isError() {
+        return severity == Severity.ERROR;
+    }
+}
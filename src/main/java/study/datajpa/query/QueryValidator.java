@@ -0,0 +1,129 @@
+package study.datajpa.query;
+
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static study.datajpa.query.QueryIssue.Severity.ERROR;
+import static study.datajpa.query.QueryIssue.Severity.WARN;
+
+/**
+ * @Query 문자열(JPQL, 네이티브)에서 운영에서 문제가 되는 패턴을 정규식 수준으로 찾아낸다.
+ * - 조인 조건 없는 join / cross join / where 없는 콤마 조인 (카테시안 곱)
+ * - select *
+ * - 본 쿼리와 from, where, inner join 이 다른 countQuery
+ */
+public class QueryValidator {
+
+    private static final Pattern SELECT_ALL = Pattern.compile("(?i)\\bselect\\s+(distinct\\s+)?(\\w+\\.)?\\*");
+    private static final Pattern JOIN = Pattern.compile(
+            "(?i)\\b(?:(inner|left|right|full|cross)\\s+(?:outer\\s+)?)?join\\s+(fetch\\s+)?([\\w.]+)");
+    private static final Pattern JOIN_END = Pattern.compile(
+            "(?i)\\b(join|where|group\\s+by|order\\s+by|having|limit|union)\\b");
+    private static final Pattern JOIN_CONDITION = Pattern.compile("(?i)\\b(on|using|with)\\b");
+    private static final Pattern FROM = Pattern.compile("(?i)\\bfrom\\s+([\\w.]+)");
+    private static final Pattern FROM_END = Pattern.compile(
+            "(?i)\\b(join|inner|left|right|full|cross|where|group\\s+by|order\\s+by|having|limit)\\b");
+    private static final Pattern WHERE = Pattern.compile(
+            "(?is)\\bwhere\\b(.*?)(\\bgroup\\s+by\\b|\\border\\s+by\\b|\\blimit\\b|$)");
+
+    public List<QueryIssue> validate(String query, String countQuery, boolean nativeQuery) {
+        List<QueryIssue> issues = new ArrayList<>();
+        checkSelectAll(query, issues);
+        checkJoins(query, nativeQuery, issues);
+        if (StringUtils.hasText(countQuery)) {
+            checkJoins(countQuery, nativeQuery, issues);
+            checkCountQuery(query, countQuery, nativeQuery, issues);
+        }
+        return issues;
+    }
+
+    private void checkSelectAll(String query, List<QueryIssue> issues) {
+        if (SELECT_ALL.matcher(query).find()) {
+            issues.add(new QueryIssue(WARN, "select * 는 필요 없는 컬럼까지 읽고 스키마 변경에 취약하다: " + query));
+        }
+    }
+
+    private void checkJoins(String query, boolean nativeQuery, List<QueryIssue> issues) {
+        Matcher join = JOIN.matcher(query);
+        while (join.find()) {
+            String target = join.group(3);
+            if ("cross".equalsIgnoreCase(join.group(1))) {
+                issues.add(new QueryIssue(ERROR, "cross join 은 카테시안 곱을 만든다: " + target));
+                continue;
+            }
+            if (!nativeQuery && target.contains(".")) {
+                continue; // JPQL 연관관계 경로 조인(m.team)은 조인 조건이 자동으로 붙는다
+            }
+            String rest = query.substring(join.end());
+            Matcher end = JOIN_END.matcher(rest);
+            String joinClause = end.find() ? rest.substring(0, end.start()) : rest;
+            if (!JOIN_CONDITION.matcher(joinClause).find()) {
+                issues.add(new QueryIssue(ERROR, "조인 조건(on) 없는 join 은 카테시안 곱을 만든다: " + target));
+            }
+        }
+
+        String fromClause = fromClause(query);
+        if (fromClause.contains(",") && where(query).isEmpty()) {
+            issues.add(new QueryIssue(ERROR, "where 없는 콤마 조인은 카테시안 곱을 만든다: " + fromClause.trim()));
+        }
+    }
+
+    private void checkCountQuery(String query, String countQuery, boolean nativeQuery, List<QueryIssue> issues) {
+        if (!mainTable(query).equals(mainTable(countQuery))) {
+            issues.add(new QueryIssue(ERROR, "countQuery 의 from 대상이 본 쿼리와 다르다: " + countQuery));
+        }
+        if (!normalize(where(query)).equals(normalize(where(countQuery)))) {
+            issues.add(new QueryIssue(ERROR, "countQuery 의 where 조건이 본 쿼리와 다르다: " + countQuery));
+        }
+        Set<String> countJoins = joinTargets(countQuery, nativeQuery, false);
+        for (String innerJoin : joinTargets(query, nativeQuery, true)) {
+            if (!countJoins.contains(innerJoin)) {
+                issues.add(new QueryIssue(ERROR, "본 쿼리의 inner join 이 countQuery 에 없어 전체 건수가 달라진다: " + innerJoin));
+            }
+        }
+    }
+
+    private Set<String> joinTargets(String query, boolean nativeQuery, boolean innerOnly) {
+        Set<String> targets = new HashSet<>();
+        Matcher join = JOIN.matcher(query);
+        while (join.find()) {
+            String type = join.group(1);
+            boolean inner = type == null || "inner".equalsIgnoreCase(type);
+            if (!innerOnly || inner) {
+                targets.add(normalize(join.group(3)));
+            }
+        }
+        return targets;
+    }
+
+    private String mainTable(String query) {
+        Matcher from = FROM.matcher(query);
+        return from.find() ? normalize(from.group(1)) : "";
+    }
+
+    private String fromClause(String query) {
+        Matcher from = FROM.matcher(query);
+        if (!from.find()) {
+            return "";
+        }
+        String rest = query.substring(from.start() + "from".length());
+        Matcher end = FROM_END.matcher(rest);
+        return end.find() ? rest.substring(0, end.start()) : rest;
+    }
+
+    private String where(String query) {
+        Matcher where = WHERE.matcher(query);
+        return where.find() ? where.group(1) : "";
+    }
+
+    private String normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,90 @@
+package study.datajpa.query;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 기동 시점에 모든 리포지토리의 @Query(JPQL, 네이티브)를 QueryValidator 로 검사한다.
+ * query.validation.fail-on-error=true 이면 ERROR 가 하나라도 있을 때 기동을 실패시킨다.
+ */
+@Slf4j
+@Component
+public class RepositoryQueryValidator implements SmartInitializingSingleton {
+
+    private final ListableBeanFactory beanFactory;
+    private final boolean enabled;
+    private final boolean failOnError;
+    private final QueryValidator queryValidator = new QueryValidator();
+
+    public RepositoryQueryValidator(ListableBeanFactory beanFactory,
+                                    @Value("${query.validation.enabled:true}") boolean enabled,
+                                    @Value("${query.validation.fail-on-error:false}") boolean failOnError) {
+        this.beanFactory = beanFactory;
+        this.enabled = enabled;
+        this.failOnError = failOnError;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        List<MethodIssue> errors = new ArrayList<>();
+        for (MethodIssue issue : validateRepositories()) {
+            log.warn("[query validation] {}", issue);
+            if (issue.getIssue().isError()) {
+                errors.add(issue);
+            }
+        }
+        if (failOnError && !errors.isEmpty()) {
+            throw new IllegalStateException("잘못된 리포지토리 쿼리가 있습니다: " + errors);
+        }
+    }
+
+    public List<MethodIssue> validateRepositories() {
+        List<MethodIssue> result = new ArrayList<>();
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            repositories.getRepositoryInformationFor(domainType).ifPresent(information -> {
+                for (Method method : information.getQueryMethods()) {
+                    Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+                    if (query == null) {
+                        continue;
+                    }
+                    for (QueryIssue issue : queryValidator.validate(query.value(), query.countQuery(), query.nativeQuery())) {
+                        result.add(new MethodIssue(
+                                information.getRepositoryInterface().getSimpleName() + "." + method.getName(), issue));
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 문제가 있는 쿼리 메소드(리포지토리.메소드)와 문제
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class MethodIssue {
+        private final String method;
+        private final QueryIssue issue;
+
+        @Override
+        public String toString() {
+            return issue.getSeverity() + " " + method + " - " + issue.getMessage();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package study.datajpa.repository;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
+import study.datajpa.event.MemberChangeEvent;
+import study.datajpa.event.MemberChangePublisher;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -9,11 +12,14 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    private final MemberChangePublisher memberChangePublisher;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -70,8 +76,10 @@ public class MemberJpaRepository {
     }
 
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        int resultCount = em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
+        memberChangePublisher.publish(em, MemberChangeEvent.bulkAged(age, resultCount));
+        return resultCount;
     }
 }
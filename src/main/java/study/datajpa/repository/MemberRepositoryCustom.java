@@ -1,9 +1,42 @@
 package study.datajpa.repository;
 
+import org.springframework.data.jpa.domain.Specification;
 import study.datajpa.entity.Member;
+import study.datajpa.shard.ShardMerge;
 
 import java.util.List;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    /**
+     * age 이상인 회원의 나이를 1 증가시키는 벌크 수정. 변경 이벤트(BULK_AGED)를 함께 발행한다.
+     */
+    int bulkAgePlus(int age);
+
+    /**
+     * 명세에 해당하는 회원을 엔티티 로딩 없이 하나의 UPDATE 쿼리로 수정한다.
+     * 실행 전 flush, 실행 후 영속성 컨텍스트를 clear 한다. (@Modifying(clearAutomatically = true)와 동일)
+     * spec 이 null 이면 IllegalArgumentException
+     */
+    int bulkUpdate(Specification<Member> spec, String attributeName, Object value);
+
+    /**
+     * 명세에 해당하는 회원을 엔티티 로딩 없이 하나의 DELETE 쿼리로 삭제한다.
+     * spec 이 null 이면 IllegalArgumentException
+     */
+    int bulkDelete(Specification<Member> spec);
+
+    /**
+     * username 이 prefix 로 시작하는 회원을 username 순으로 최대 limit 명 조회한다. (대소문자 무시, 팀 fetch join)
+     * LIKE 대신 메모리 인덱스(UsernameSearchIndex)로 id 를 찾고 id 로만 조회한다.
+     */
+    @ShardMerge(sort = {"username", "id"}, limitArgument = 1)
+    List<Member> searchByUsernamePrefix(String prefix, int limit);
+
+    /**
+     * username 에 keyword 가 포함된 회원을 username 순으로 최대 limit 명 조회한다. (대소문자 무시, 팀 fetch join)
+     */
+    @ShardMerge(sort = {"username", "id"}, limitArgument = 1)
+    List<Member> searchByUsernameContaining(String keyword, int limit);
 }
@@ -1,19 +1,120 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
+import study.datajpa.event.MemberChangeEvent;
+import study.datajpa.event.MemberChangePublisher;
+import study.datajpa.search.UsernameSearchIndex;
 
 import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 import java.util.List;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
+    private final MemberChangePublisher memberChangePublisher;
+    private final UsernameSearchIndex usernameSearchIndex;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        int resultCount = em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+                .setParameter("age", age)
+                .executeUpdate();
+        em.clear();
+        memberChangePublisher.publish(em, MemberChangeEvent.bulkAged(age, resultCount));
+        return resultCount;
+    }
+
+    @Override
+    @Transactional
+    public int bulkUpdate(Specification<Member> spec, String attributeName, Object value) {
+        requireSpec(spec);
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaUpdate<Member> update = cb.createCriteriaUpdate(Member.class);
+        Root<Member> root = update.from(Member.class);
+        update.set(attributeName, value)
+                .where(root.get("id").in(matchingIds(update.subquery(Long.class), spec)));
+
+        em.flush();
+        int resultCount = em.createQuery(update).executeUpdate();
+        em.clear();
+        memberChangePublisher.publish(em, MemberChangeEvent.bulkUpdated(resultCount));
+        return resultCount;
+    }
+
+    @Override
+    @Transactional
+    public int bulkDelete(Specification<Member> spec) {
+        requireSpec(spec);
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaDelete<Member> delete = cb.createCriteriaDelete(Member.class);
+        Root<Member> root = delete.from(Member.class);
+        delete.where(root.get("id").in(matchingIds(delete.subquery(Long.class), spec)));
+
+        em.flush();
+        int resultCount = em.createQuery(delete).executeUpdate();
+        em.clear();
+        memberChangePublisher.publish(em, MemberChangeEvent.bulkDeleted(resultCount));
+        return resultCount;
+    }
+
+    @Override
+    public List<Member> searchByUsernamePrefix(String prefix, int limit) {
+        return findAllByIdOrderByUsername(usernameSearchIndex.searchPrefix(prefix, limit));
+    }
+
+    @Override
+    public List<Member> searchByUsernameContaining(String keyword, int limit) {
+        return findAllByIdOrderByUsername(usernameSearchIndex.searchContaining(keyword, limit));
+    }
+
+    private List<Member> findAllByIdOrderByUsername(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery("select m from Member m left join fetch m.team" +
+                        " where m.id in :ids order by m.username, m.id", Member.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * null 명세를 전체 회원으로 해석하면 실수 한 번에 전체가 수정/삭제되므로 받지 않는다. (전체가 대상이면 조건 없는 명세를 명시적으로 넘긴다)
+     */
+    private static void requireSpec(Specification<Member> spec) {
+        if (spec == null) {
+            throw new IllegalArgumentException("벌크 연산의 명세가 null 입니다. 전체 회원이 대상이면 Specification.where(null) 을 넘기세요.");
+        }
+    }
+
+    /**
+     * 벌크 쿼리의 루트에는 조인을 걸 수 없으므로 명세(조인 포함)는 id 서브쿼리로 감싸서 적용한다.
+     */
+    private Subquery<Long> matchingIds(Subquery<Long> subquery, Specification<Member> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        Root<Member> m = subquery.from(Member.class);
+        subquery.select(m.<Long>get("id"));
+
+        Predicate predicate = spec.toPredicate(m, cb.createQuery(), cb);
+        if (predicate != null) {
+            subquery.where(predicate);
+        }
+        return subquery;
+    }
 }
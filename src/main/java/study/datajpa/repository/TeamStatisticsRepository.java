@@ -0,0 +1,44 @@
+package study.datajpa.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import study.datajpa.dto.TeamStatisticsDto;
+import study.datajpa.entity.TeamStatistics;
+
+import java.util.List;
+
+public interface TeamStatisticsRepository extends JpaRepository<TeamStatistics, Long> {
+
+    @Query("select new study.datajpa.dto.TeamStatisticsDto(s.teamId, t.name, s.memberCount, s.ageSum) " +
+            "from TeamStatistics s join Team t on t.id = s.teamId " +
+            "order by s.memberCount desc")
+    List<TeamStatisticsDto> findTeamStatistics();
+
+    @Modifying
+    @Query("update TeamStatistics s set s.memberCount = s.memberCount + :count, s.ageSum = s.ageSum + :ageSum " +
+            "where s.teamId = :teamId")
+    int addDelta(@Param("teamId") Long teamId, @Param("count") long count, @Param("ageSum") long ageSum);
+
+    /**
+     * bulkAgePlus(age) 직후 기준: 나이가 age 초과인 회원 = 이번에 1 증가한 회원
+     */
+    @Modifying
+    @Query(value = "update team_statistics s set age_sum = age_sum + " +
+            "(select count(*) from member m where m.team_id = s.team_id and m.age > :age)",
+            nativeQuery = true)
+    int addBulkAged(@Param("age") int age);
+
+    @Modifying
+    @Query(value = "delete from team_statistics", nativeQuery = true)
+    int deleteAllStatistics();
+
+    @Modifying
+    @Query(value = "insert into team_statistics (team_id, member_count, age_sum) " +
+            "select t.team_id, count(m.member_id), coalesce(sum(m.age), 0) " +
+            "from team t left join member m on m.team_id = t.team_id " +
+            "group by t.team_id",
+            nativeQuery = true)
+    int insertRebuiltStatistics();
+}
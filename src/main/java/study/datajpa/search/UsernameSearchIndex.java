@@ -0,0 +1,284 @@
+package study.datajpa.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.event.MemberChangeEvent;
+import study.datajpa.event.MemberChangeType;
+import study.datajpa.shard.Shards;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * username 타입어헤드 검색용 메모리 인덱스. (대소문자 무시)
+ * - 접두어: username 정렬 맵(skip list)의 범위 조회
+ * - 부분 문자열: 1~3-gram 역색인으로 후보 username 을 좁힌 뒤 contains 로 확인하고, 정렬 순서로 앞의 limit 개만 남긴다.
+ *   3 글자 미만 키워드는 같은 길이의 gram posting 이 곧 결과이므로 username 목록 전체를 훑지 않는다.
+ * 기동 시 회원 테이블에서(샤드가 있으면 샤드마다) 만들고, 커밋된 회원 변경 이벤트로 증분 갱신한다.
+ * username 이 바뀔 수 있는 벌크 연산은 커밋 이후 rebuild 전용 스레드에서 다시 만든다. (밀린 요청은 한 번으로 합치고, 그동안 검색은 이전 인덱스를 본다)
+ * 인덱스는 회원 id 만 돌려주고 회원 조회는 MemberRepository.searchByUsername* 가 한다.
+ */
+@Slf4j
+@Component
+public class UsernameSearchIndex {
+
+    static final int GRAM = 3;
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+    private final boolean rebuildOnStartup;
+
+    private final Object lock = new Object();
+    private volatile Index index = new Index();
+    private List<Consumer<Index>> pendingDuringRebuild;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "username-search-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    public UsernameSearchIndex(EntityManager em,
+                               PlatformTransactionManager transactionManager,
+                               Shards shards,
+                               @Value("${member.search.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shards = shards;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public List<Long> searchPrefix(String prefix, int limit) {
+        return index.searchPrefix(normalize(prefix), limit);
+    }
+
+    public List<Long> searchContaining(String keyword, int limit) {
+        return index.searchContaining(normalize(keyword), limit);
+    }
+
+    public int size() {
+        return index.usernameById.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(MemberChangeEvent event) {
+        if (event.getType() == MemberChangeType.BULK_AGED || event.getType() == MemberChangeType.BULK_AGE_INCREMENTED) {
+            return;
+        }
+        if (event.isBulk()) {
+            scheduleRebuild(); // 커밋 이후이므로 바로 예약한다.
+            return;
+        }
+        Long memberId = event.getMemberId();
+        String username = event.getAfter() == null ? null : event.getAfter().getUsername();
+        apply(index -> {
+            index.remove(memberId);
+            if (username != null) {
+                index.add(memberId, username);
+            }
+        });
+    }
+
+    /**
+     * 회원 테이블에서 인덱스를 새로 만들어 교체한다. 만드는 동안 들어온 증분 변경은 새 인덱스에 다시 적용한다.
+     */
+    public synchronized int rebuild() {
+        synchronized (lock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        Index fresh = new Index();
+        try {
+            shards.each(() -> transactionTemplate.execute(status -> {
+                em.createQuery("select m.id, m.username from Member m", Object[].class)
+                        .setHint("org.hibernate.fetchSize", 1000)
+                        .getResultStream()
+                        .forEach(row -> fresh.add((Long) row[0], (String) row[1]));
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pendingDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            pendingDuringRebuild.forEach(change -> change.accept(fresh));
+            pendingDuringRebuild = null;
+            index = fresh;
+        }
+        log.info("username search index rebuilt: {} members", fresh.usernameById.size());
+        return fresh.usernameById.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false); // 이후에 커밋된 벌크 변경은 다음 rebuild 가 반영한다.
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("username search index rebuild failed", e);
+                }
+            });
+        }
+    }
+
+    private void apply(Consumer<Index> change) {
+        synchronized (lock) {
+            change.accept(index);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        }
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 쓰기는 lock 안에서 한 스레드만 하고, 읽기는 lock 없이 동시 자료구조를 읽는다.
+     */
+    static class Index {
+
+        final Map<Long, String> usernameById = new ConcurrentHashMap<>();
+        final NavigableMap<String, Set<Long>> idsByUsername = new ConcurrentSkipListMap<>();
+        final Map<String, Set<String>> usernamesByGram = new ConcurrentHashMap<>();
+
+        void add(Long id, String username) {
+            if (username == null) {
+                return;
+            }
+            String key = normalize(username);
+            usernameById.put(id, key);
+            idsByUsername.computeIfAbsent(key, k -> {
+                indexGrams(k).forEach(gram -> usernamesByGram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(k));
+                return ConcurrentHashMap.newKeySet();
+            }).add(id);
+        }
+
+        void remove(Long id) {
+            String key = usernameById.remove(id);
+            if (key == null) {
+                return;
+            }
+            Set<Long> ids = idsByUsername.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                idsByUsername.remove(key);
+                for (String gram : indexGrams(key)) {
+                    Set<String> usernames = usernamesByGram.get(gram);
+                    if (usernames != null && usernames.remove(key) && usernames.isEmpty()) {
+                        usernamesByGram.remove(gram);
+                    }
+                }
+            }
+        }
+
+        List<Long> searchPrefix(String prefix, int limit) {
+            return collect(idsByUsername.subMap(prefix, true, prefix + Character.MAX_VALUE, true).keySet(), limit);
+        }
+
+        List<Long> searchContaining(String keyword, int limit) {
+            if (limit <= 0) {
+                return List.of();
+            }
+            if (keyword.isEmpty()) {
+                return collect(idsByUsername.keySet(), limit);
+            }
+            Set<String> candidates = null;
+            for (String gram : grams(keyword, Math.min(GRAM, keyword.length()))) {
+                Set<String> usernames = usernamesByGram.get(gram);
+                if (usernames == null) {
+                    return List.of();
+                }
+                if (candidates == null || usernames.size() < candidates.size()) {
+                    candidates = usernames;
+                }
+            }
+            // 가장 짧은 posting 만 훑고 나머지 gram 조건은 contains 로 확인한다. (3 글자 미만이면 posting 이 곧 결과)
+            // username 마다 id 가 하나 이상이므로 정렬 순서로 앞의 limit 개 username 이면 충분하다.
+            TreeSet<String> first = new TreeSet<>();
+            for (String username : candidates) {
+                if (username.contains(keyword) && (first.size() < limit || username.compareTo(first.last()) < 0)) {
+                    first.add(username);
+                    if (first.size() > limit) {
+                        first.pollLast();
+                    }
+                }
+            }
+            return collect(first, limit);
+        }
+
+        private List<Long> collect(Iterable<String> usernames, int limit) {
+            List<Long> ids = new ArrayList<>();
+            for (String username : usernames) {
+                Set<Long> matched = idsByUsername.get(username);
+                if (matched == null) {
+                    continue;
+                }
+                for (Long id : matched) {
+                    if (ids.size() == limit) {
+                        return ids;
+                    }
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        /**
+         * 색인할 gram: 길이 1 ~ GRAM 의 모든 부분 문자열
+         */
+        static Set<String> indexGrams(String key) {
+            Set<String> grams = new HashSet<>();
+            for (int length = 1; length <= GRAM; length++) {
+                grams.addAll(grams(key, length));
+            }
+            return grams;
+        }
+
+        static Set<String> grams(String key, int length) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + length <= key.length(); i++) {
+                grams.add(key.substring(i, i + length));
+            }
+            return grams;
+        }
+    }
+}
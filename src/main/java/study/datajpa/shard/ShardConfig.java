@@ -0,0 +1,78 @@
+package study.datajpa.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * shard.enabled=true 이면 spring.datasource 대신 shard.urls 의 DB 들을 ShardRoutingDataSource 로 묶는다.
+ * 샤드를 모르는 호출자도 샤드로 가도록 MemberRepository, TeamRepository 빈을 ShardRoutingRepositoryInterceptor 로 감싼다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shard.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(ShardProperties properties) {
+        if (properties.getUrls().isEmpty()) {
+            throw new IllegalStateException("shard.urls 가 비어 있습니다.");
+        }
+        Map<Object, Object> shards = new HashMap<>();
+        for (int shard = 0; shard < properties.getUrls().size(); shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(properties.getUrls().get(shard))
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shard);
+            shards.put(shard, dataSource);
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards.size());
+        routing.setTargetDataSources(shards);
+        routing.setDefaultTargetDataSource(shards.get(0));
+        return routing;
+    }
+
+    /**
+     * 빈 후처리기는 다른 빈보다 먼저 만들어지므로 static 으로 선언하고 의존 빈은 인터셉터가 처음 호출될 때 찾는다.
+     */
+    @Bean
+    public static BeanPostProcessor shardRoutingRepositoryPostProcessor(BeanFactory beanFactory) {
+        ShardRoutingRepositoryInterceptor interceptor = new ShardRoutingRepositoryInterceptor(beanFactory);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof MemberRepository) {
+                    return routed(bean, MemberRepository.class);
+                }
+                if (bean instanceof TeamRepository) {
+                    return routed(bean, TeamRepository.class);
+                }
+                return bean;
+            }
+
+            private Object routed(Object repository, Class<?> repositoryInterface) {
+                ProxyFactory proxyFactory = new ProxyFactory();
+                proxyFactory.setTarget(repository);
+                proxyFactory.addInterface(repositoryInterface);
+                proxyFactory.addAdvice(interceptor);
+                return proxyFactory.getProxy(repositoryInterface.getClassLoader());
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드가 사용할 샤드. 트랜잭션이 커넥션을 얻기 전에(트랜잭션 시작 전에) 설정해야 한다.
+ */
+public class ShardContext {
+
+    private static final ThreadLocal<Integer> current = new ThreadLocal<>();
+
+    public static Integer current() {
+        return current.get();
+    }
+
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = current.get();
+        current.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.shard;
+
+/**
+ * 샤드 k 의 시퀀스는 k << SHARD_BITS 부터 시작하므로(ShardSchemaInitializer) id 만 보고 샤드를 알 수 있다.
+ * 팀은 생성된 샤드에 머물고, 회원은 팀의 샤드에 저장되므로 team id 가 곧 라우팅 키다.
+ */
+public class ShardIds {
+
+    public static final int SHARD_BITS = 40;
+
+    public static int shardOf(long id) {
+        return (int) (id >>> SHARD_BITS);
+    }
+
+    public static long baseOf(int shard) {
+        return (long) shard << SHARD_BITS;
+    }
+}
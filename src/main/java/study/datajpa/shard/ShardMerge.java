@@ -0,0 +1,25 @@
+package study.datajpa.shard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 샤드별 List 결과를 합칠 때의 정렬과 개수 제한. (ShardRoutingRepositoryInterceptor)
+ * Sort/Pageable 파라미터 없이 쿼리 안에서 정렬하고 개수를 자르는 리포지토리 메소드에 붙인다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardMerge {
+
+    /**
+     * 정렬 속성 (오름차순)
+     */
+    String[] sort();
+
+    /**
+     * 최대 개수가 담긴 int 파라미터의 위치. 없으면 -1
+     */
+    int limitArgument() default -1;
+}
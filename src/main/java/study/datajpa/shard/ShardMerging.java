@@ -0,0 +1,98 @@
+package study.datajpa.shard;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 샤드별로 같은 정렬로 가져온 결과를 하나의 정렬 순서로 합친다.
+ * 정렬 키(team.name 같은 중첩 속성 포함)는 샤드 트랜잭션 안에서 window() 로 미리 읽어 둔다.
+ * 트랜잭션이 끝난 뒤 키를 읽으면 지연 로딩이 닫힌 세션에서 일어나기 때문이다.
+ */
+class ShardMerging {
+
+    /**
+     * 정렬이 없으면 id 순으로 합친다. 샤드 쿼리도 같은 정렬로 보내야 샤드마다 앞쪽 window 만 읽어도 된다.
+     */
+    static Sort orById(Sort sort) {
+        return sort.isSorted() ? sort : Sort.by("id");
+    }
+
+    /**
+     * 한 샤드의 결과와 정렬 키. total 은 그 샤드의 전체 건수(페이지 쿼리의 count)
+     */
+    static <T> Window<T> window(Iterable<T> elements, long total, Sort sort) {
+        List<Keyed<T>> keyed = new ArrayList<>();
+        for (T element : elements) {
+            List<Object> keys = new ArrayList<>();
+            BeanWrapperImpl wrapper = element == null ? null : new BeanWrapperImpl(element);
+            for (Sort.Order order : sort) {
+                keys.add(wrapper != null && wrapper.isReadableProperty(order.getProperty())
+                        ? wrapper.getPropertyValue(order.getProperty())
+                        : null);
+            }
+            keyed.add(new Keyed<>(element, keys));
+        }
+        return new Window<>(keyed, total);
+    }
+
+    static <T> long total(List<Window<T>> windows) {
+        return windows.stream().mapToLong(window -> window.total).sum();
+    }
+
+    static <T> long size(List<Window<T>> windows) {
+        return windows.stream().mapToLong(window -> window.content.size()).sum();
+    }
+
+    /**
+     * 합친 순서에서 [offset, offset + limit) 만 돌려준다.
+     */
+    static <T> List<T> merge(List<Window<T>> windows, Sort sort, long offset, long limit) {
+        return windows.stream()
+                .flatMap(window -> window.content.stream())
+                .sorted(comparator(sort))
+                .skip(offset)
+                .limit(limit)
+                .map(keyed -> keyed.element)
+                .collect(toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Comparator<Keyed<T>> comparator(Sort sort) {
+        Comparator<Keyed<T>> result = (a, b) -> 0;
+        int index = 0;
+        for (Sort.Order order : sort) {
+            int position = index++;
+            Comparator<Keyed<T>> byKey = Comparator.comparing(
+                    keyed -> (Comparable<Object>) keyed.keys.get(position),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            result = result.thenComparing(order.isAscending() ? byKey : byKey.reversed());
+        }
+        return result;
+    }
+
+    static class Window<T> {
+        private final List<Keyed<T>> content;
+        private final long total;
+
+        Window(List<Keyed<T>> content, long total) {
+            this.content = content;
+            this.total = total;
+        }
+    }
+
+    private static class Keyed<T> {
+        private final T element;
+        private final List<Object> keys;
+
+        Keyed(T element, List<Object> keys) {
+            this.element = element;
+            this.keys = keys;
+        }
+    }
+}
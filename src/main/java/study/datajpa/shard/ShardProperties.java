@@ -0,0 +1,18 @@
+package study.datajpa.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties("shard")
+public class ShardProperties {
+
+    private boolean enabled;
+    private List<String> urls = new ArrayList<>();
+    private String username = "sa";
+    private String password = "";
+}
@@ -0,0 +1,40 @@
+package study.datajpa.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * ShardContext 의 샤드로 커넥션을 라우팅한다. 샤드가 지정되지 않으면 샤드 0 을 쓴다.
+ * 샤드 DataSource 들은 빈이 아니므로 컨텍스트가 닫힐 때 close() 로 함께 닫는다. (destroy 메소드 추론)
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final int shardCount;
+
+    public ShardRoutingDataSource(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public DataSource getShard(int shard) {
+        return getResolvedDataSources().get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : getResolvedDataSources().values()) {
+            if (shard instanceof AutoCloseable) {
+                ((AutoCloseable) shard).close();
+            }
+        }
+    }
+}
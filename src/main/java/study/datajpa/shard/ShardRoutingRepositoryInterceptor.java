@@ -0,0 +1,260 @@
+package study.datajpa.shard;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 샤드를 모르는 호출자(컨트롤러, 캐시, 슬라이스 선조회 등)의 리포지토리 호출을 샤드로 보낸다. (ShardConfig 가 MemberRepository, TeamRepository 에 적용)
+ * - ShardContext 가 이미 정해진 호출은 그대로 통과한다. (ShardedMemberRepository, Shards.each 로 도는 작업)
+ * - id 로 찾는/지우는 호출: id 의 샤드. save/delete(엔티티): ShardedMemberRepository.shardFor 의 샤드
+ * - 그 밖의 조회(find, get, read, query, search, count, exists, stream): 모든 샤드에 차례로 보내 합친다.
+ *   Page/Slice 와 Sort 파라미터가 있는 조회는 같은 정렬로 앞쪽 window 만 읽어 병합 정렬하고, 건수는 더한다.
+ *   쿼리 안에서 정렬하고 자르는 List 조회는 @ShardMerge 로 정렬과 개수를 알려 준다.
+ * - 그 밖의 쓰기(벌크 연산): 모든 샤드에서 실행하고 건수를 더한다.
+ * 샤드마다 자기 트랜잭션에서 실행하고 호출 스레드에서 차례로 돌므로 스레드 로컬(FetchPlans, 쿼리 예산, 엔드포인트 집계)이 그대로 적용된다.
+ * 샤드 없이 시작한 트랜잭션 안의 호출은 한 샤드(0)에만 묶여 있으므로 조용히 샤드 0 으로 보내지 않고 거부한다.
+ */
+class ShardRoutingRepositoryInterceptor implements MethodInterceptor {
+
+    private static final Set<String> BY_ID = Set.of("findById", "getById", "getOne", "existsById", "deleteById");
+    private static final Set<String> IDS = Set.of("findAllById", "deleteAllById", "deleteAllByIdInBatch");
+    private static final Set<String> ENTITY = Set.of("save", "saveAndFlush", "delete");
+    private static final Set<String> ENTITIES = Set.of("saveAll", "saveAllAndFlush", "deleteAll", "deleteAllInBatch", "deleteInBatch");
+    private static final List<String> READ_PREFIXES = List.of("find", "get", "read", "query", "search", "count", "exists", "stream");
+
+    private final BeanFactory beanFactory;
+    private volatile Routing routing;
+
+    ShardRoutingRepositoryInterceptor(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (ShardContext.current() != null || method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("샤드를 정하지 않고 시작한 트랜잭션 안에서는 " + method.getName()
+                    + " 을 샤드로 보낼 수 없습니다. ShardContext 안에서 트랜잭션을 시작하세요.");
+        }
+        Object target = invocation.getThis();
+        Object[] args = invocation.getArguments();
+        String name = method.getName();
+        boolean read = READ_PREFIXES.stream().anyMatch(name::startsWith);
+        Routing routing = routing();
+
+        if (args.length == 1 && BY_ID.contains(name) && args[0] instanceof Long) {
+            return routing.on(ShardIds.shardOf((Long) args[0]), read, target, method, args);
+        }
+        if (args.length == 1 && ENTITY.contains(name) && !(args[0] instanceof Iterable)) {
+            return routing.on(routing.shardFor(args[0]), false, target, method, args);
+        }
+        if (args.length == 1 && args[0] instanceof Iterable && (IDS.contains(name) || ENTITIES.contains(name))) {
+            ToIntFunction<Object> shardOf = IDS.contains(name)
+                    ? id -> ShardIds.shardOf((Long) id)
+                    : routing::shardFor;
+            return byShard(routing, read, target, method, (Iterable<?>) args[0], shardOf);
+        }
+        return fanOut(routing, read, target, method, args);
+    }
+
+    /**
+     * id/엔티티 묶음을 샤드별로 나눠 실행하고 결과(List)를 이어 붙인다.
+     */
+    private Object byShard(Routing routing, boolean read, Object target, Method method,
+                           Iterable<?> items, ToIntFunction<Object> shardOf) throws Throwable {
+        Map<Integer, List<Object>> byShard = new TreeMap<>();
+        items.forEach(item -> byShard.computeIfAbsent(shardOf.applyAsInt(item), shard -> new ArrayList<>()).add(item));
+        List<Object> results = new ArrayList<>();
+        for (Map.Entry<Integer, List<Object>> entry : byShard.entrySet()) {
+            Object result = routing.on(entry.getKey(), read, target, method, new Object[]{entry.getValue()});
+            if (result instanceof Collection) {
+                results.addAll((Collection<?>) result);
+            }
+        }
+        return method.getReturnType() == void.class ? null : results;
+    }
+
+    private Object fanOut(Routing routing, boolean read, Object target, Method method, Object[] args) throws Throwable {
+        Class<?> type = method.getReturnType();
+        int pageableIndex = indexOf(method, Pageable.class);
+        Pageable pageable = pageableIndex < 0 ? Pageable.unpaged() : (Pageable) args[pageableIndex];
+
+        if (Slice.class.isAssignableFrom(type) && pageable.isPaged()) {
+            boolean page = Page.class.isAssignableFrom(type);
+            Sort sort = ShardMerging.orById(pageable.getSort());
+            long window = pageable.getOffset() + pageable.getPageSize() + (page ? 0 : 1); // Slice 는 다음 페이지 확인용 1 건
+            Object[] shardArgs = args.clone();
+            shardArgs[pageableIndex] = PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, window), sort);
+
+            List<ShardMerging.Window<Object>> windows = routing.each(read, () -> {
+                Slice<?> slice = (Slice<?>) invoke(target, method, shardArgs);
+                long total = slice instanceof Page ? ((Page<?>) slice).getTotalElements() : slice.getNumberOfElements();
+                return ShardMerging.window(new ArrayList<>(slice.getContent()), total, sort);
+            });
+            List<Object> content = ShardMerging.merge(windows, sort, pageable.getOffset(), pageable.getPageSize());
+            if (page) {
+                return new PageImpl<>(content, pageable, ShardMerging.total(windows));
+            }
+            return new SliceImpl<>(content, pageable, ShardMerging.size(windows) > pageable.getOffset() + pageable.getPageSize());
+        }
+
+        if (Iterable.class.isAssignableFrom(type) || Stream.class.isAssignableFrom(type)) {
+            Sort sort = mergeSort(method, args, pageable);
+            long limit = mergeLimit(method, args, pageable);
+            List<ShardMerging.Window<Object>> windows = routing.each(read, () -> {
+                Object result = invoke(target, method, args);
+                List<Object> elements = result instanceof Stream
+                        ? ((Stream<?>) result).collect(toList()) // 스트림은 트랜잭션 안에서 다 읽는다.
+                        : toList((Iterable<?>) result);
+                return ShardMerging.window(elements, elements.size(), sort);
+            });
+            List<Object> merged = ShardMerging.merge(windows, sort, pageable.isPaged() ? pageable.getOffset() : 0, limit);
+            if (Stream.class.isAssignableFrom(type)) {
+                return merged.stream();
+            }
+            return Set.class.isAssignableFrom(type) ? new LinkedHashSet<>(merged) : merged;
+        }
+
+        List<Object> results = routing.each(read, () -> invoke(target, method, args));
+        if (type == void.class) {
+            return null;
+        }
+        if (type == Optional.class) {
+            return results.stream().map(result -> (Optional<?>) result).filter(Optional::isPresent).findFirst().orElse(Optional.empty());
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return results.stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (type == long.class || type == Long.class) {
+            return results.stream().mapToLong(result -> result == null ? 0 : ((Number) result).longValue()).sum();
+        }
+        if (type == int.class || type == Integer.class) {
+            return results.stream().mapToInt(result -> result == null ? 0 : ((Number) result).intValue()).sum();
+        }
+        return results.stream().filter(result -> result != null).findFirst().orElse(null); // 단건 조회
+    }
+
+    private static Sort mergeSort(Method method, Object[] args, Pageable pageable) {
+        ShardMerge merge = method.getAnnotation(ShardMerge.class);
+        if (merge != null) {
+            return Sort.by(merge.sort());
+        }
+        int sortIndex = indexOf(method, Sort.class);
+        if (sortIndex >= 0) {
+            return (Sort) args[sortIndex];
+        }
+        return pageable.getSort();
+    }
+
+    private static long mergeLimit(Method method, Object[] args, Pageable pageable) {
+        ShardMerge merge = method.getAnnotation(ShardMerge.class);
+        if (merge != null && merge.limitArgument() >= 0) {
+            return ((Number) args[merge.limitArgument()]).longValue();
+        }
+        return pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE;
+    }
+
+    private static int indexOf(Method method, Class<?> type) {
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            if (type.isAssignableFrom(types[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Object> toList(Iterable<?> iterable) {
+        List<Object> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) {
+        try {
+            return AopUtils.invokeJoinpointUsingReflection(target, method, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Routing routing() {
+        Routing current = routing;
+        if (current == null) { // 빈 후처리기는 일찍 만들어지므로 의존 빈은 처음 호출할 때 찾는다.
+            current = new Routing(beanFactory.getBean(ShardedMemberRepository.class),
+                    beanFactory.getBean(PlatformTransactionManager.class));
+            routing = current;
+        }
+        return current;
+    }
+
+    private interface ShardCall<T> {
+        T call();
+    }
+
+    private static class Routing {
+
+        private final ShardedMemberRepository shardedMemberRepository;
+        private final TransactionTemplate readTransaction;
+        private final TransactionTemplate writeTransaction;
+
+        Routing(ShardedMemberRepository shardedMemberRepository, PlatformTransactionManager transactionManager) {
+            this.shardedMemberRepository = shardedMemberRepository;
+            this.readTransaction = new TransactionTemplate(transactionManager);
+            this.readTransaction.setReadOnly(true);
+            this.writeTransaction = new TransactionTemplate(transactionManager);
+        }
+
+        int shardFor(Object entity) {
+            return shardedMemberRepository.shardFor(entity);
+        }
+
+        Object on(int shard, boolean read, Object target, Method method, Object[] args) {
+            return on(shard, read, () -> invoke(target, method, args));
+        }
+
+        <T> List<T> each(boolean read, ShardCall<T> call) {
+            List<T> results = new ArrayList<>();
+            for (int shard = 0; shard < shardedMemberRepository.getShardCount(); shard++) {
+                results.add(on(shard, read, call));
+            }
+            return results;
+        }
+
+        private <T> T on(int shard, boolean read, ShardCall<T> call) {
+            TransactionTemplate transaction = read ? readTransaction : writeTransaction;
+            return ShardContext.call(shard, () -> transaction.execute(status -> call.call()));
+        }
+    }
+}
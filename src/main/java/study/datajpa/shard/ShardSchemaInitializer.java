@@ -0,0 +1,44 @@
+package study.datajpa.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpa.id.SequenceRestarts;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * ddl-auto 는 기본 샤드(0)에만 스키마를 만들므로 그 스키마를 나머지 샤드에 복제하고(H2 SCRIPT),
+ * 샤드마다 모든 시퀀스가 ShardIds.baseOf(shard) 다음부터 id 블록을 내주게 한다. (SequenceRestarts)
+ * EntityManagerFactory(= 스키마 생성) 이후에 실행되도록 의존한다. 운영 DB 에서는 샤드별 마이그레이션으로 대신한다.
+ * 샤드 1..n 의 모든 객체를 지우므로 shard.initialize-schema=true 일 때만 실행한다. (ddl-auto create 와 함께 쓰는 개발/테스트용)
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shard", name = {"enabled", "initialize-schema"}, havingValue = "true")
+public class ShardSchemaInitializer {
+
+    private final EntityManagerFactory emf;
+    private final ShardRoutingDataSource dataSource;
+
+    @PostConstruct
+    public void initialize() {
+        List<String> script = new JdbcTemplate(dataSource.getShard(0)).queryForList("script nodata", String.class);
+
+        for (int shard = 1; shard < dataSource.getShardCount(); shard++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource.getShard(shard));
+            jdbcTemplate.execute("drop all objects");
+            script.forEach(jdbcTemplate::execute);
+
+            long next = ShardIds.baseOf(shard) + 1;
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                SequenceRestarts.restartAll(connection, next);
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package study.datajpa.shard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 팀 id 로 샤드를 고르는 MemberRepository 앞단.
+ * 팀은 라운드 로빈으로 샤드에 배치하고, 회원은 팀의 샤드에 저장한다. (팀 없는 회원은 username 해시)
+ * id 로 찾는 조회는 한 샤드로 가고, username 조회와 페이징 조회는 모든 샤드에 병렬로 보내 합친다.
+ * 트랜잭션 하나는 한 샤드에서만 동작하므로 다른 샤드의 팀으로 회원을 옮기는 것은 지원하지 않는다.
+ * 샤드를 모르는 호출자의 MemberRepository/TeamRepository 호출도 같은 규칙(shardFor)으로 보낸다. (ShardRoutingRepositoryInterceptor)
+ */
+@Component
+@ConditionalOnProperty(name = "shard.enabled", havingValue = "true")
+public class ShardedMemberRepository {
+
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int shardCount;
+    private final ExecutorService fanOutExecutor;
+    private final AtomicInteger nextTeamShard = new AtomicInteger();
+
+    public ShardedMemberRepository(MemberRepository memberRepository,
+                                   TeamRepository teamRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   ShardRoutingDataSource dataSource) {
+        this.memberRepository = memberRepository;
+        this.teamRepository = teamRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.shardCount = dataSource.getShardCount();
+        this.fanOutExecutor = Executors.newFixedThreadPool(shardCount);
+    }
+
+    public int shardOf(Team team) {
+        return ShardIds.shardOf(team.getId());
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * 엔티티를 저장할 샤드.
+     * - 팀: 저장된 팀은 id 의 샤드, 새 팀은 라운드 로빈
+     * - 회원: 팀의 샤드, 팀이 없으면 저장된 회원은 id 의 샤드, 새 회원은 username 해시
+     */
+    public int shardFor(Object entity) {
+        if (entity instanceof Team) {
+            Team team = (Team) entity;
+            return team.getId() != null
+                    ? shardOf(team)
+                    : Math.floorMod(nextTeamShard.getAndIncrement(), shardCount);
+        }
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            if (member.getTeam() == null) {
+                return member.getId() != null
+                        ? ShardIds.shardOf(member.getId())
+                        : Math.floorMod(member.getUsername().hashCode(), shardCount);
+            }
+            int shard = shardOf(member.getTeam());
+            if (member.getId() != null && ShardIds.shardOf(member.getId()) != shard) {
+                throw new IllegalArgumentException("다른 샤드의 팀으로 회원을 옮길 수 없습니다. member=" + member.getId());
+            }
+            return shard;
+        }
+        throw new IllegalArgumentException("샤드를 정할 수 없는 엔티티입니다: " + entity);
+    }
+
+    public Team saveTeam(Team team) {
+        return onShard(shardFor(team), () -> transactionTemplate.execute(status -> teamRepository.save(team)));
+    }
+
+    public Member save(Member member) {
+        return onShard(shardFor(member), () -> transactionTemplate.execute(status -> memberRepository.save(member)));
+    }
+
+    public Optional<MemberDto> findById(Long id) {
+        return onShard(ShardIds.shardOf(id), () -> readOnlyTransactionTemplate.execute(status ->
+                memberRepository.findById(id).map(ShardedMemberRepository::toDto)));
+    }
+
+    public List<MemberDto> findByUsername(String username) {
+        return fanOut(() -> memberRepository.findEntityGraphByUsername(username).stream()
+                .map(ShardedMemberRepository::toDto)
+                .collect(toList()))
+                .stream()
+                .flatMap(List::stream)
+                .collect(toList());
+    }
+
+    /**
+     * 각 샤드에서 offset + size 개를 같은 정렬로 가져와 병합 정렬한 뒤 요청한 페이지만 잘라낸다.
+     * 정렬이 없으면 id 순으로 합친다. 깊은 페이지일수록 샤드마다 읽는 양이 늘어난다.
+     * 정렬 키는 샤드 트랜잭션 안에서 읽는다. (team.name 같은 중첩 속성)
+     */
+    public Page<MemberDto> findAll(Pageable pageable) {
+        Sort sort = ShardMerging.orById(pageable.getSort());
+        int window = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        PageRequest shardRequest = PageRequest.of(0, window, sort);
+
+        List<ShardMerging.Window<Member>> windows = fanOut(() -> {
+            Page<Member> page = memberRepository.findAll(shardRequest);
+            return ShardMerging.window(page.getContent(), page.getTotalElements(), sort);
+        });
+
+        List<MemberDto> content = ShardMerging.merge(windows, sort, pageable.getOffset(), pageable.getPageSize()).stream()
+                .map(MemberDto::new)
+                .collect(toList());
+        return new PageImpl<>(content, pageable, ShardMerging.total(windows));
+    }
+
+    public long count() {
+        return fanOut(memberRepository::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    private <T> List<T> fanOut(Supplier<T> query) {
+        List<CompletableFuture<T>> futures = IntStream.range(0, shardCount)
+                .mapToObj(shard -> CompletableFuture.supplyAsync(() ->
+                        onShard(shard, () -> readOnlyTransactionTemplate.execute(status -> query.get())), fanOutExecutor))
+                .collect(toList());
+        return futures.stream().map(CompletableFuture::join).collect(toList());
+    }
+
+    private static <T> T onShard(int shard, Supplier<T> action) {
+        return ShardContext.call(shard, action);
+    }
+
+    private static MemberDto toDto(Member member) {
+        return new MemberDto(member.getId(), member.getUsername(),
+                member.getTeam() == null ? null : member.getTeam().getName());
+    }
+}
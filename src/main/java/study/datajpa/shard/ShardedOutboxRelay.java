@@ -0,0 +1,33 @@
+package study.datajpa.shard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.datajpa.outbox.OutboxRelay;
+
+/**
+ * 아웃박스는 회원 변경과 같은 샤드에 쌓인다. 기본 릴레이는 샤드 0 만 비우므로 나머지 샤드를 맡는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shard.enabled", havingValue = "true")
+public class ShardedOutboxRelay {
+
+    private final OutboxRelay outboxRelay;
+    private final ShardRoutingDataSource dataSource;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:1000}",
+            initialDelayString = "${outbox.relay.initial-delay:1000}")
+    public void scheduledRelay() {
+        for (int shard = 1; shard < dataSource.getShardCount(); shard++) {
+            try {
+                ShardContext.call(shard, outboxRelay::relay);
+            } catch (RuntimeException e) {
+                log.warn("outbox relay failed. shard={}", shard, e);
+            }
+        }
+    }
+}
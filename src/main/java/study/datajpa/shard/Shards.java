@@ -0,0 +1,48 @@
+package study.datajpa.shard;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 샤드를 모르는 작업(전체 재구성, 전체 스캔)을 샤드마다 한 번씩 실행하게 한다.
+ * shard.enabled=false 이면 샤드가 하나(0)인 것처럼 동작하고 ShardContext 는 건드리지 않는다.
+ */
+@Component
+public class Shards {
+
+    private final int count;
+    private final boolean enabled;
+
+    public Shards(ObjectProvider<ShardRoutingDataSource> dataSource) {
+        ShardRoutingDataSource routing = dataSource.getIfAvailable();
+        this.enabled = routing != null;
+        this.count = routing == null ? 1 : routing.getShardCount();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public <T> T on(int shard, Supplier<T> action) {
+        return enabled ? ShardContext.call(shard, action) : action.get();
+    }
+
+    /**
+     * 샤드 순서대로 실행해서 샤드별 결과를 돌려준다.
+     */
+    public <T> List<T> each(Supplier<T> action) {
+        List<T> results = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            results.add(on(shard, action));
+        }
+        return results;
+    }
+}
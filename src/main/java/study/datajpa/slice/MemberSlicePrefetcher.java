@@ -0,0 +1,164 @@
+package study.datajpa.slice;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.event.MemberChangeEvent;
+import study.datajpa.event.MemberState;
+import study.datajpa.repository.MemberRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 나이별 무한 스크롤. 응답마다 다음 slice 용 커서 토큰(X-Slice-Cursor)을 주고, 커서를 들고 온 요청(스크롤 중인 클라이언트)에만
+ * 다음 slice 를 비동기로 미리 읽어서 새 커서 토큰으로 잠시 보관한다.
+ * - 미리 읽은 결과는 그 토큰을 받은 클라이언트만 꺼내 쓴다. (꺼내면 제거, 요청한 age/page 가 다르면 버린다)
+ * - 커서 없는 요청은 미리 읽지 않으므로 한 번만 보는 클라이언트는 추가 쿼리를 내지 않는다.
+ * - 커밋된 회원 변경은 바뀐 나이의 미리 읽은 slice 를, 벌크 연산은 전부를 버린다.
+ * 클라이언트가 다음 slice 를 요청하지 않으면 TTL 이 지나 버려진다.
+ */
+@Component
+public class MemberSlicePrefetcher {
+
+    public static final String CURSOR_HEADER = "X-Slice-Cursor";
+
+    private final MemberRepository memberRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ExecutorService executor;
+
+    private final Map<String, Prefetched> prefetched = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public MemberSlicePrefetcher(MemberRepository memberRepository,
+                                 @Value("${member.slice.prefetch-ttl-millis:30000}") long ttlMillis,
+                                 @Value("${member.slice.max-entries:1000}") int maxEntries,
+                                 @Value("${member.slice.threads:2}") int threads) {
+        this.memberRepository = memberRepository;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "member-slice-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * cursor 는 이전 응답이 준 토큰. 없으면(null) 스크롤 중이 아닌 요청으로 보고 미리 읽지 않는다.
+     */
+    public CursorSlice findSliceByAge(int age, Pageable pageable, String cursor) {
+        Slice<MemberDto> slice = null;
+        if (cursor != null) {
+            slice = takePrefetched(cursor, age, pageable);
+            if (slice == null) {
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+        }
+        if (slice == null) {
+            slice = load(age, pageable);
+        }
+
+        if (!slice.hasNext()) {
+            return new CursorSlice(slice, null);
+        }
+        String nextCursor = UUID.randomUUID().toString();
+        if (cursor != null) {
+            prefetch(nextCursor, age, slice.nextPageable());
+        }
+        return new CursorSlice(slice, nextCursor);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(MemberChangeEvent event) {
+        if (event.isBulk()) {
+            prefetched.clear();
+            return;
+        }
+        prefetched.values().removeIf(entry -> entry.hasAge(event.getBefore()) || entry.hasAge(event.getAfter()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Slice<MemberDto> takePrefetched(String cursor, int age, Pageable pageable) {
+        Prefetched entry = prefetched.remove(cursor);
+        if (entry == null || entry.isExpired(System.currentTimeMillis())
+                || entry.age != age || !entry.pageable.equals(pageable)) {
+            return null;
+        }
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            return null; // 미리 읽기에 실패하면 동기로 다시 읽는다
+        }
+    }
+
+    private void prefetch(String cursor, int age, Pageable next) {
+        long now = System.currentTimeMillis();
+        if (prefetched.size() >= maxEntries) {
+            prefetched.values().removeIf(entry -> entry.isExpired(now));
+            if (prefetched.size() >= maxEntries) {
+                return;
+            }
+        }
+        prefetched.put(cursor, new Prefetched(age, next,
+                CompletableFuture.supplyAsync(() -> load(age, next), executor), now + ttlMillis));
+    }
+
+    private Slice<MemberDto> load(int age, Pageable pageable) {
+        return memberRepository.findSliceByAge(age, pageable).map(MemberDto::new);
+    }
+
+    /**
+     * 응답할 slice 와 다음 slice 를 요청할 때 보낼 커서. 마지막 slice 면 nextCursor 는 null
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class CursorSlice {
+        private final Slice<MemberDto> slice;
+        private final String nextCursor;
+    }
+
+    @RequiredArgsConstructor
+    private static class Prefetched {
+        private final int age;
+        private final Pageable pageable;
+        private final CompletableFuture<Slice<MemberDto>> future;
+        private final long expiresAt;
+
+        boolean isExpired(long now) {
+            return now > expiresAt;
+        }
+
+        boolean hasAge(MemberState state) {
+            return state != null && state.getAge() == age;
+        }
+    }
+}
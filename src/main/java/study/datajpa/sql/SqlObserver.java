@@ -0,0 +1,157 @@
+package study.datajpa.sql;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 모든 문장을 로그로 남기는 대신(p6spy, org.hibernate.SQL debug)
+ * - sample-rate 비율만 study.datajpa.sql.sample 로거에 남기고
+ * - slow-threshold-millis 이상 걸린 문장은 바인딩 값과 함께 항상 study.datajpa.sql.slow 로거에 남기고
+ * - 모든 문장은 SQL 모양(리터럴, IN 목록을 ? 로 접은 형태)별로 lock-free 카운터에 집계한다.
+ * 실행마다 드는 비용은 nanoTime 두 번과 SQL 문자열 키 조회 정도다. 정규화는 처음 본 SQL 에만 한다.
+ * - 모양은 max-shapes 개까지만 따로 세고 그 뒤의 새 모양은 (other) 로 합친다.
+ * - SQL 문자열 -> 모양 메모는 max-sql-memo 개까지만 둔다. 메모가 차면 리터럴이 박힌 SQL 은 매번 정규화해서 기존 모양에 합친다.
+ */
+@Component
+public class SqlObserver {
+
+    private static final Logger sampleLog = LoggerFactory.getLogger("study.datajpa.sql.sample");
+    private static final Logger slowLog = LoggerFactory.getLogger("study.datajpa.sql.slow");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    static final String OTHER_SHAPE = "(other)";
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+    private final int maxSqlMemo;
+
+    private final Map<String, ShapeStats> statsBySql = new ConcurrentHashMap<>();
+    private final Map<String, ShapeStats> statsByShape = new ConcurrentHashMap<>();
+    private final LongAdder slowQueries = new LongAdder();
+
+    public SqlObserver(@Value("${sql.observe.sample-rate:0.01}") double sampleRate,
+                       @Value("${sql.observe.slow-threshold-millis:200}") long slowThresholdMillis,
+                       @Value("${sql.observe.max-shapes:1000}") int maxShapes,
+                       @Value("${sql.observe.max-sql-memo:10000}") int maxSqlMemo) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.maxShapes = maxShapes;
+        this.maxSqlMemo = maxSqlMemo;
+    }
+
+    public void executed(String sql, List<Object> binds, long elapsedNanos, boolean failed) {
+        if (sql == null) {
+            return;
+        }
+        statsOf(sql).record(elapsedNanos, failed);
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            slowQueries.increment();
+            if (slowLog.isWarnEnabled()) {
+                slowLog.warn("{} ms{} | {} | binds={}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                        failed ? " (failed)" : "", sql, binds);
+            }
+        } else if (sampleRate > 0 && sampleLog.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            sampleLog.info("{} ms | {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sql);
+        }
+    }
+
+    public long getSlowQueries() {
+        return slowQueries.sum();
+    }
+
+    /**
+     * 누적 실행 시간이 큰 순서로 limit 개
+     */
+    public List<ShapeSnapshot> snapshot(int limit) {
+        return statsByShape.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(Comparator.comparingDouble(ShapeSnapshot::getTotalMillis).reversed())
+                .limit(limit)
+                .collect(toList());
+    }
+
+    private ShapeStats statsOf(String sql) {
+        ShapeStats stats = statsBySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        stats = statsOfShape(shapeOf(sql));
+        if (statsBySql.size() < maxSqlMemo) {
+            statsBySql.putIfAbsent(sql, stats);
+        }
+        return stats;
+    }
+
+    private ShapeStats statsOfShape(String shape) {
+        ShapeStats stats = statsByShape.get(shape);
+        if (stats != null) {
+            return stats;
+        }
+        if (statsByShape.size() >= maxShapes) {
+            return statsByShape.computeIfAbsent(OTHER_SHAPE, s -> new ShapeStats());
+        }
+        return statsByShape.computeIfAbsent(shape, s -> new ShapeStats());
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    static class ShapeStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        void record(long nanos, boolean failed) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        ShapeSnapshot snapshot(String shape) {
+            return new ShapeSnapshot(shape, count.sum(), errors.sum(), totalNanos.sum() / 1_000_000.0, maxNanos.get() / 1_000_000.0);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class ShapeSnapshot {
+        private final String shape;
+        private final long count;
+        private final long errors;
+        private final double totalMillis;
+        private final double maxMillis;
+
+        public double getAverageMillis() {
+            return count == 0 ? 0.0 : totalMillis / count;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package study.datajpa.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.event.MemberChangeEvent;
+import study.datajpa.event.MemberState;
+import study.datajpa.repository.TeamStatisticsRepository;
+import study.datajpa.shard.Shards;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 회원 변경 이벤트로 team_statistics 를 증분 갱신한다. 이벤트는 변경이 일어난 트랜잭션 안에서 커밋 직전에 오므로
+ * 요약과 회원 테이블은 함께 커밋/롤백된다. (트랜잭션 밖에서 온 이벤트는 새 트랜잭션에서 처리)
+ * - 생성/삭제/팀 이동/나이 변경: 해당 팀 row 에 (회원 수, 나이 합) 차이를 더한다.
+ * - bulkAgePlus: 팀별로 이번에 증가한 회원 수만큼 나이 합을 더한다.
+ * - 쓰기 지연 나이 증가(MemberAgeIncrementBuffer): 이벤트에 담긴 팀별 나이 합 증가분을 더한다.
+ * - 그 밖의 벌크 연산(Specification 벌크, CSV 적재), 이전 상태를 모르는 수정, 요약 row 가 없는 팀:
+ *   영향받은 팀을 알 수 없으므로 커밋 이후에 전체를 다시 만든다. (rebuild 전용 스레드 하나에서 직렬로, 밀린 요청은 한 번으로 합친다)
+ *   다시 만들기 전까지 요약은 잠시 뒤처질 수 있다.
+ * 팀 요약 row 는 팀이 저장될 때 TeamStatisticsRowCreator 가 만들어 두므로 여기서는 증분 UPDATE 만 한다.
+ */
+@Slf4j
+@Component
+public class TeamStatisticsMaintainer {
+
+    private final TeamStatisticsRepository teamStatisticsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+    private final boolean rebuildOnStartup;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "team-statistics-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    public TeamStatisticsMaintainer(TeamStatisticsRepository teamStatisticsRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    Shards shards,
+                                    @Value("${team.statistics.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.teamStatisticsRepository = teamStatisticsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @EventListener
+    public void on(MemberChangeEvent event) {
+        transactionTemplate.executeWithoutResult(status -> apply(event));
+    }
+
+    /**
+     * 회원 테이블 전체를 집계해서 요약을 다시 만든다. O(회원 수)이므로 동시 쓰기가 적을 때 실행한다.
+     * 동시에 두 번 실행되지 않도록 직렬화한다. 팀과 회원은 같은 샤드에 있으므로 샤드마다 따로 만든다.
+     */
+    public synchronized int rebuild() {
+        int teams = shards.each(() -> transactionTemplate.execute(status -> {
+            teamStatisticsRepository.deleteAllStatistics();
+            return teamStatisticsRepository.insertRebuiltStatistics();
+        })).stream().mapToInt(rebuilt -> rebuilt == null ? 0 : rebuilt).sum();
+        log.info("team statistics rebuilt: {} teams", teams);
+        return teams;
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋된 뒤(트랜잭션이 없으면 바로) rebuild 를 백그라운드에서 실행한다.
+     * 아직 시작하지 않은 rebuild 가 있으면 그것으로 충분하므로 새로 예약하지 않는다.
+     */
+    public void requestRebuild() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRebuild();
+                }
+            });
+        } else {
+            scheduleRebuild();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false); // 이후에 커밋된 변경은 다음 rebuild 가 반영한다.
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("team statistics rebuild failed", e);
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    private void apply(MemberChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                add(event.getAfter(), 1);
+                break;
+            case DELETED:
+                add(event.getBefore(), -1);
+                break;
+            case UPDATED:
+                if (event.getBefore() == null) {
+                    requestRebuild(); // 이전 상태를 모르는 경우 (detached update)
+                } else if (event.isTeamChanged() || event.getBefore().getAge() != event.getAfter().getAge()) {
+                    add(event.getBefore(), -1);
+                    add(event.getAfter(), 1);
+                }
+                break;
+            case BULK_AGED:
+                teamStatisticsRepository.addBulkAged(event.getAgeThreshold());
+                break;
+            case BULK_AGE_INCREMENTED:
+                for (Map.Entry<Long, Long> delta : event.getTeamAgeDeltas().entrySet()) {
+                    if (teamStatisticsRepository.addDelta(delta.getKey(), 0, delta.getValue()) == 0) {
+                        requestRebuild(); // 요약 row 가 없는 팀
+                        break;
+                    }
+                }
+                break;
+            default:
+                requestRebuild();
+        }
+    }
+
+    private void add(MemberState state, int sign) {
+        if (state.getTeamId() == null) {
+            return;
+        }
+        if (teamStatisticsRepository.addDelta(state.getTeamId(), sign, (long) sign * state.getAge()) == 0) {
+            requestRebuild(); // row 없이 만들어진 팀 (JDBC 적재): 여기서 insert 하면 동시 insert 가 PK 충돌로 회원 변경까지 롤백시킨다.
+        }
+    }
+}
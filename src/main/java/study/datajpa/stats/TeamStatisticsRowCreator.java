@@ -0,0 +1,65 @@
+package study.datajpa.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * 팀이 INSERT 될 때 같은 트랜잭션에서 빈 요약 row (0, 0) 를 만든다.
+ * 회원 변경 쪽(TeamStatisticsMaintainer)은 row 가 항상 있다고 보고 증분 UPDATE 만 하므로
+ * 같은 팀의 첫 회원이 동시에 저장돼도 insert 가 겹쳐 PK 충돌이 나지 않는다.
+ * flush 도중에 세션 작업(persist, 쿼리)을 하면 안 되므로 세션의 JDBC 커넥션으로 직접 실행한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatisticsRowCreator implements PostInsertEventListener {
+
+    private static final String INSERT_SQL = "insert into team_statistics (team_id, member_count, age_sum) values (?, 0, 0)";
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void register() {
+        emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_INSERT, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!(event.getEntity() instanceof Team)) {
+            return;
+        }
+        SharedSessionContractImplementor session = event.getSession();
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        PreparedStatement ps = jdbcCoordinator.getStatementPreparer().prepareStatement(INSERT_SQL);
+        try {
+            ps.setLong(1, (Long) event.getId());
+            jdbcCoordinator.getResultSetReturn().executeUpdate(ps);
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "팀 요약 row 생성 실패", INSERT_SQL);
+        } finally {
+            jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(ps);
+            jdbcCoordinator.afterStatementExecution();
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+}
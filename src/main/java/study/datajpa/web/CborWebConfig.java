@@ -0,0 +1,37 @@
+package study.datajpa.web;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Accept: application/cbor 요청에는 같은 응답 객체를 CBOR(바이너리 JSON)로 쓴다.
+ * 내부 서비스 간 호출용이며, JSON 과 같은 ObjectMapper 설정을 쓰므로 필드 구성은 동일하다.
+ * Spring MVC 가 기본으로 등록하는 CBOR 컨버터(Jackson 기본 설정)를 그 자리에서 바꾼다. 뒤에 하나 더 붙이면 앞의 기본 컨버터가 먼저 선택된다.
+ * 기본 컨버터는 JSON 컨버터 뒤에 있으므로 Accept 가 없거나 모든 타입을 받는 요청은 지금처럼 JSON 으로 응답한다.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class CborWebConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        MappingJackson2CborHttpMessageConverter cbor = new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build());
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter) {
+                converters.set(i, cbor);
+                return;
+            }
+        }
+        converters.add(cbor);
+    }
+}
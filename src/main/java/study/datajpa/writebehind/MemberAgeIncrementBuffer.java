@@ -0,0 +1,262 @@
+package study.datajpa.writebehind;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.event.MemberChangeEvent;
+import study.datajpa.shard.ShardContext;
+import study.datajpa.shard.ShardIds;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 회원 나이 증가처럼 순서와 상관없이 더하기만 하는 변경을 메모리에서 회원별로 합쳤다가 주기적으로 배치 UPDATE 로 반영한다.
+ * 같은 회원을 초당 수천 번 증가시켜도 DB 에는 flush 마다 회원당 한 번의 UPDATE 만 나간다.
+ * - 증가: 회원별 StripedCounter 에 CAS 로 더한다. (락 없음)
+ * - flush: 카운터를 비우고 member_id 순서로 배치 UPDATE 한 뒤 팀별 나이 합 증가분을 BULK_AGE_INCREMENTED 로 같은 트랜잭션 안에서 발행한다.
+ *   팀 요약은 함께 커밋되고 캐시/검색 인덱스는 무시한다. 실패하면 꺼낸 증가분을 버퍼에 되돌린다.
+ * - 한 번의 flush 동안 증가가 없던 회원의 카운터는 닫고 맵에서 뺀다.
+ * - 반영은 회원 id 의 샤드(ShardIds)별로 나눠 샤드마다 트랜잭션 하나로 한다. 그 사이 삭제되어 UPDATE 가 0 건인 회원은
+ *   경고 로그를 남기고 missingMembers 로 센다.
+ * - 종료 시(@PreDestroy) 남은 증가분을 반영한다. 내구성 수준은 WriteBehindDurability 참고.
+ */
+@Slf4j
+@Component
+public class MemberAgeIncrementBuffer {
+
+    private static final String UPDATE_SQL = "update member set age = age + ? where member_id = ?";
+    private static final String EXISTS_SQL = "select count(*) from member where member_id = ?";
+    private static final String TEAM_SQL = "select member_id, team_id from member where member_id in (:ids) and team_id is not null";
+    private static final int IN_CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate flushTransaction;
+    private final TransactionTemplate writeThroughTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WriteBehindDurability durability;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final ConcurrentHashMap<Long, StripedCounter> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder increments = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder missingMembers = new LongAdder();
+
+    public MemberAgeIncrementBuffer(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${member.write-behind.durability:BUFFERED}") WriteBehindDurability durability,
+                                    @Value("${member.write-behind.batch-size:500}") int batchSize,
+                                    @Value("${member.write-behind.max-pending:10000}") int maxPending) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.writeThroughTransaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.durability = durability;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * 버퍼에 카운터가 없는 회원만 존재를 확인하고 더한다. 자주 증가하는 회원은 조회 없이 버퍼에 더해진다.
+     * @return 회원이 없으면 false
+     */
+    public boolean incrementIfExists(Long memberId, long delta) {
+        if (!counters.containsKey(memberId) && !exists(memberId)) {
+            return false;
+        }
+        increment(memberId, delta);
+        return true;
+    }
+
+    public void increment(Long memberId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        increments.increment();
+        if (durability == WriteBehindDurability.WRITE_THROUGH) {
+            ShardContext.call(ShardIds.shardOf(memberId), () -> {
+                writeThroughTransaction.executeWithoutResult(status -> write(Map.of(memberId, delta)));
+                return null;
+            });
+            return;
+        }
+        while (true) {
+            StripedCounter counter = counters.computeIfAbsent(memberId, id -> new StripedCounter());
+            if (counter.add(delta)) {
+                break;
+            }
+            counters.remove(memberId, counter); // flush 가 닫은 카운터: 맵에서 빼는 것을 돕고 새 카운터로 다시 시도
+        }
+        if (counters.mappingCount() >= maxPending && flushLock.tryLock()) {
+            try {
+                flushLocked(); // 호출한 스레드가 비운다. (쓰기 쪽 배압)
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return 반영한 회원 수
+     */
+    @Scheduled(fixedDelayString = "${member.write-behind.flush-interval:1000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        if (flushed > 0) {
+            log.info("write-behind flushed {} members on shutdown", flushed);
+        }
+        if (!counters.isEmpty()) {
+            log.warn("write-behind lost {} pending members on shutdown", counters.size());
+        }
+    }
+
+    private int flushLocked() {
+        Map<Long, Long> drained = new TreeMap<>(); // member_id 순서로 잠가서 동시 flush/벌크 연산과의 교착을 피한다.
+        for (Map.Entry<Long, StripedCounter> entry : counters.entrySet()) {
+            StripedCounter counter = entry.getValue();
+            long delta = counter.drain();
+            if (delta == 0) {
+                delta = counter.retire();
+                counters.remove(entry.getKey(), counter);
+            }
+            if (delta != 0) {
+                drained.put(entry.getKey(), delta);
+            }
+        }
+        if (drained.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Map<Long, Long>> byShard = new TreeMap<>();
+        drained.forEach((memberId, delta) ->
+                byShard.computeIfAbsent(ShardIds.shardOf(memberId), shard -> new TreeMap<>()).put(memberId, delta));
+        int flushed = 0;
+        for (Map.Entry<Integer, Map<Long, Long>> entry : byShard.entrySet()) {
+            Map<Long, Long> shardDeltas = entry.getValue();
+            try {
+                ShardContext.call(entry.getKey(), () -> {
+                    flushTransaction.executeWithoutResult(status -> write(shardDeltas));
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                failedFlushes.increment();
+                shardDeltas.forEach(this::restore);
+                log.warn("write-behind flush failed, {} members restored to buffer. shard={}", shardDeltas.size(), entry.getKey(), e);
+                continue;
+            }
+            flushed += shardDeltas.size();
+        }
+        if (flushed > 0) {
+            flushes.increment();
+            flushedRows.add(flushed);
+        }
+        return flushed;
+    }
+
+    private void restore(Long memberId, long delta) {
+        while (true) {
+            StripedCounter counter = counters.computeIfAbsent(memberId, id -> new StripedCounter());
+            if (counter.add(delta)) {
+                return;
+            }
+            counters.remove(memberId, counter);
+        }
+    }
+
+    private boolean exists(Long memberId) {
+        Integer count = ShardContext.call(ShardIds.shardOf(memberId),
+                () -> jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, memberId));
+        return count != null && count > 0;
+    }
+
+    /**
+     * 현재 샤드(ShardContext)의 트랜잭션 안에서 실행한다.
+     */
+    private void write(Map<Long, Long> deltas) {
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        ids.forEach(memberId -> args.add(new Object[]{deltas.get(memberId), memberId}));
+        int updated = 0;
+        List<Long> missing = new ArrayList<>();
+        for (int from = 0; from < args.size(); from += batchSize) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, args.subList(from, Math.min(from + batchSize, args.size())));
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    missing.add(ids.get(from + i));
+                }
+                updated += Math.max(counts[i], 0);
+            }
+        }
+        if (!missing.isEmpty()) {
+            missingMembers.add(missing.size());
+            log.warn("write-behind dropped age increments for {} missing members: {}", missing.size(), missing);
+        }
+        eventPublisher.publishEvent(MemberChangeEvent.agesIncremented(updated, teamAgeDeltas(deltas)));
+    }
+
+    private Map<Long, Long> teamAgeDeltas(Map<Long, Long> deltas) {
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        Map<Long, Long> teamDeltas = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size())));
+            namedJdbcTemplate.query(TEAM_SQL, params, rs -> {
+                teamDeltas.merge(rs.getLong("team_id"), deltas.get(rs.getLong("member_id")), Long::sum);
+            });
+        }
+        return teamDeltas;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(durability, counters.size(), increments.sum(), flushedRows.sum(), flushes.sum(),
+                failedFlushes.sum(), missingMembers.sum());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Snapshot {
+        private final WriteBehindDurability durability;
+        private final int pendingMembers;
+        private final long increments;
+        private final long flushedRows;
+        private final long flushes;
+        private final long failedFlushes;
+        private final long missingMembers;
+    }
+}
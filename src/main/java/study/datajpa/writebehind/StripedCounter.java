@@ -0,0 +1,59 @@
+package study.datajpa.writebehind;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 회원 한 명의 미반영 증가분. 스레드 id 로 칸(stripe)을 나눠 같은 회원에 대한 동시 증가가 한 칸에서 CAS 경합하지 않게 한다.
+ * 칸은 비우는 쪽(flush)만 0 으로 되돌리거나 RETIRED 로 닫는다. 닫힌 카운터에 더하려던 스레드는 새 카운터로 다시 시도한다.
+ */
+final class StripedCounter {
+
+    static final long RETIRED = Long.MIN_VALUE;
+
+    private static final int STRIPES = stripes();
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES);
+
+    /**
+     * @return 이미 닫힌 카운터면 false (더하지 않음)
+     */
+    boolean add(long delta) {
+        int index = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        while (true) {
+            long value = cells.get(index);
+            if (value == RETIRED) {
+                return false;
+            }
+            if (cells.compareAndSet(index, value, value + delta)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 지금까지 더해진 값을 꺼내고 0 으로 되돌린다. 닫는 쪽과 같은 스레드(flush)에서만 호출한다.
+     */
+    long drain() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.getAndSet(i, 0);
+        }
+        return sum;
+    }
+
+    /**
+     * 카운터를 닫고 그 사이에 더해진 나머지 값을 돌려준다. 이후의 add 는 false 를 돌려준다.
+     */
+    long retire() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.getAndSet(i, RETIRED);
+        }
+        return sum;
+    }
+
+    private static int stripes() {
+        int cpus = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+        return Integer.highestOneBit(Math.max(cpus, 2)); // 2 의 거듭제곱
+    }
+}
@@ -0,0 +1,10 @@
+package study.datajpa.writebehind;
+
+/**
+ * 쓰기 지연 버퍼의 내구성 수준
+ * - BUFFERED: 메모리에 모았다가 flush-interval 마다(또는 max-pending 을 넘으면) 반영한다. 그 사이 프로세스가 죽으면 모은 증가분은 사라진다.
+ * - WRITE_THROUGH: 버퍼 없이 호출한 트랜잭션 안에서 바로 반영한다. 유실은 없지만 행 갱신이 호출마다 일어난다.
+ */
+public enum WriteBehindDurability {
+    BUFFERED, WRITE_THROUGH
+}
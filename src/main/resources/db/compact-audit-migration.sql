@@ -0,0 +1,42 @@
+-- BaseEntity -> CompactBaseEntity 전환용 (H2). 예시는 member 테이블.
+-- 1. 새 컬럼 추가 후 기존 값을 변환해서 채운다.
+--    timestamp 는 UTC 벽시계 기준 epoch millis 로 바꾼다. (EpochMillisConverter 와 동일한 규칙)
+alter table member add column create_by_compact binary(16);
+alter table member add column last_modified_by_compact binary(16);
+alter table member add column create_date_compact bigint;
+alter table member add column last_modified_date_compact bigint;
+
+update member
+set create_by_compact          = cast(cast(create_by as uuid) as binary(16)),
+    last_modified_by_compact   = cast(cast(last_modified_by as uuid) as binary(16)),
+    create_date_compact        = datediff('MILLISECOND', timestamp '1970-01-01 00:00:00', create_date),
+    last_modified_date_compact = datediff('MILLISECOND', timestamp '1970-01-01 00:00:00', last_modified_date);
+
+-- 2. 기존 컬럼을 지우고 새 컬럼 이름을 원래 이름으로 바꾼다.
+alter table member drop column create_by;
+alter table member drop column last_modified_by;
+alter table member drop column create_date;
+alter table member drop column last_modified_date;
+
+alter table member alter column create_by_compact rename to create_by;
+alter table member alter column last_modified_by_compact rename to last_modified_by;
+alter table member alter column create_date_compact rename to create_date;
+alter table member alter column last_modified_date_compact rename to last_modified_date;
+
+-- 3. 엔티티의 상속 대상을 BaseEntity -> CompactBaseEntity 로 바꾸고 배포한다.
+
+-- JpaBaseEntity -> CompactJpaBaseEntity 전환용 (H2). 예시는 team 테이블. (작성자 컬럼은 없다)
+alter table team add column create_date_compact bigint;
+alter table team add column update_date_compact bigint;
+
+update team
+set create_date_compact = datediff('MILLISECOND', timestamp '1970-01-01 00:00:00', create_date),
+    update_date_compact = datediff('MILLISECOND', timestamp '1970-01-01 00:00:00', update_date);
+
+alter table team drop column create_date;
+alter table team drop column update_date;
+
+alter table team alter column create_date_compact rename to create_date;
+alter table team alter column update_date_compact rename to update_date;
+
+-- 엔티티의 상속 대상을 JpaBaseEntity -> CompactJpaBaseEntity 로 바꾸고 배포한다.
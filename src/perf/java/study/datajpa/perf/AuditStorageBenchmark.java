@@ -0,0 +1,105 @@
+package study.datajpa.perf;
+
+import study.datajpa.entity.EpochMillisConverter;
+import study.datajpa.entity.UuidBytesConverter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 감사 컬럼 저장 방식 비교. 같은 회원 데이터를
+ * wide(varchar(36) x2 + timestamp x2, BaseEntity) / compact(binary(16) x2 + bigint x2, CompactBaseEntity)
+ * 두 테이블에 넣고 row 당 디스크 사용량, 적재/전체 읽기 처리량을 출력한다.
+ * ./gradlew auditStorageBenchmark -PbenchmarkArgs="--rows=500000"
+ */
+public class AuditStorageBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int rows = new PerfOptions(args).getInt("rows", 200_000);
+        Path dir = Files.createTempDirectory("audit-bench");
+
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + dir.resolve("bench"), "sa", "")) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table wide (member_id bigint primary key, username varchar(255), age int, " +
+                        "create_by varchar(36), last_modified_by varchar(36), create_date timestamp, last_modified_date timestamp)");
+                statement.execute("create table compact (member_id bigint primary key, username varchar(255), age int, " +
+                        "create_by binary(16), last_modified_by binary(16), create_date bigint, last_modified_date bigint)");
+            }
+
+            System.out.printf("%-8s %12s %14s %14s%n", "table", "bytes/row", "insert rows/s", "read rows/s");
+            run(connection, "wide", rows, false);
+            run(connection, "compact", rows, true);
+        }
+    }
+
+    private static void run(Connection connection, String table, int rows, boolean compact) throws SQLException {
+        UuidBytesConverter uuidConverter = new UuidBytesConverter();
+        EpochMillisConverter timeConverter = new EpochMillisConverter();
+        LocalDateTime now = LocalDateTime.now();
+
+        long insertStart = System.nanoTime();
+        try (PreparedStatement ps = connection.prepareStatement("insert into " + table + " values (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                String createBy = UUID.randomUUID().toString();
+                String modifiedBy = UUID.randomUUID().toString();
+                LocalDateTime created = now.minusSeconds(i);
+                ps.setLong(1, i);
+                ps.setString(2, "member" + i);
+                ps.setInt(3, i % 80);
+                if (compact) {
+                    ps.setBytes(4, uuidConverter.convertToDatabaseColumn(createBy));
+                    ps.setBytes(5, uuidConverter.convertToDatabaseColumn(modifiedBy));
+                    ps.setLong(6, timeConverter.convertToDatabaseColumn(created));
+                    ps.setLong(7, timeConverter.convertToDatabaseColumn(now));
+                } else {
+                    ps.setString(4, createBy);
+                    ps.setString(5, modifiedBy);
+                    ps.setTimestamp(6, Timestamp.valueOf(created));
+                    ps.setTimestamp(7, Timestamp.valueOf(now));
+                }
+                ps.addBatch();
+                if (i % 1000 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+            connection.commit();
+        }
+        double insertSeconds = (System.nanoTime() - insertStart) / 1e9;
+
+        long readStart = System.nanoTime();
+        long checksum = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select * from " + table)) {
+            while (rs.next()) {
+                checksum += compact
+                        ? uuidConverter.convertToEntityAttribute(rs.getBytes(4)).length()
+                        + timeConverter.convertToEntityAttribute(rs.getLong(6)).getSecond()
+                        : rs.getString(4).length() + rs.getTimestamp(6).toLocalDateTime().getSecond();
+            }
+        }
+        double readSeconds = (System.nanoTime() - readStart) / 1e9;
+
+        long bytes;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("checkpoint sync");
+            try (ResultSet rs = statement.executeQuery("select disk_space_used('" + table.toUpperCase() + "')")) {
+                rs.next();
+                bytes = rs.getLong(1);
+            }
+        }
+
+        System.out.printf("%-8s %12.1f %14.0f %14.0f   (checksum %d)%n",
+                table, bytes / (double) rows, rows / insertSeconds, rows / readSeconds, checksum);
+    }
+}
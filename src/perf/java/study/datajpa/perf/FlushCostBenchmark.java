@@ -0,0 +1,93 @@
+package study.datajpa.perf;
+
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * 영속성 컨텍스트에 Member/Team 을 대량으로 올려둔 상태에서 flush(dirty checking) 비용을 잰다.
+ * 바이트코드 향상이 켜져 있으면 변경된 엔티티만 검사하고, 꺼져 있으면 모든 엔티티를 스냅샷과 필드 단위로 비교한다.
+ * ./gradlew flushCostBenchmark -PbenchmarkArgs="--members=50000"
+ * ./gradlew flushCostBenchmark -PdisableEnhancement
+ */
+public class FlushCostBenchmark {
+
+    public static void main(String[] args) {
+        PerfOptions options = new PerfOptions(args);
+        int members = options.getInt("members", 20_000);
+        int teams = options.getInt("teams", 200);
+        int iterations = options.getInt("iterations", 20);
+        int changedPercent = options.getInt("changed-percent", 1);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:flushbench;DB_CLOSE_DELAY=-1",
+                        "decorator.datasource.enabled=false",
+                        "logging.level.org.hibernate.SQL=warn")
+                .run()) {
+            EntityManagerFactory emf = context.getBean(EntityManagerFactory.class);
+            seed(emf, members, teams);
+
+            EntityManager em = emf.createEntityManager();
+            em.getTransaction().begin();
+            List<Member> loaded = em.createQuery("select m from Member m join fetch m.team", Member.class).getResultList();
+            System.out.printf("enhanced=%s, managed members=%d (+ %d teams)%n",
+                    loaded.get(0) instanceof PersistentAttributeInterceptable, loaded.size(), teams);
+
+            long cleanNanos = 0;
+            long dirtyNanos = 0;
+            int step = Math.max(1, 100 / Math.max(1, changedPercent));
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                em.flush(); // 변경 없음
+                cleanNanos += System.nanoTime() - start;
+
+                for (int j = i % step; j < loaded.size(); j += step) {
+                    Member member = loaded.get(j);
+                    member.setAge(member.getAge() + 1);
+                }
+                start = System.nanoTime();
+                em.flush(); // changed-percent 만큼 변경
+                dirtyNanos += System.nanoTime() - start;
+            }
+            em.getTransaction().rollback();
+            em.close();
+
+            System.out.printf("flush without changes: %8.2f ms/flush%n", cleanNanos / 1e6 / iterations);
+            System.out.printf("flush with %d%% changed: %8.2f ms/flush%n", changedPercent, dirtyNanos / 1e6 / iterations);
+        }
+    }
+
+    private static void seed(EntityManagerFactory emf, int members, int teams) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        Team[] created = new Team[teams];
+        for (int i = 0; i < teams; i++) {
+            created[i] = new Team("team" + i);
+            em.persist(created[i]);
+        }
+        for (int i = 0; i < members; i++) {
+            Member member = new Member("member" + i, i % 80);
+            member.setTeam(created[i % teams]);
+            em.persist(member);
+            if (i % 1000 == 999) {
+                em.flush();
+                em.clear();
+                for (int t = 0; t < teams; t++) {
+                    created[t] = em.getReference(Team.class, created[t].getId());
+                }
+            }
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+}
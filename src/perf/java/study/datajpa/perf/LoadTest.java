@@ -0,0 +1,158 @@
+package study.datajpa.perf;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.dataset.DatasetSeeder;
+import study.datajpa.dataset.DatasetSpec;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * 고정 요청률(open model) 부하 테스트.
+ * 요청 i 의 예정 시각은 start + i * (1/rate) 이고, 지연 시간은 실제 전송 시각이 아니라 예정 시각부터 잰다.
+ * 클라이언트가 모두 바빠서 늦게 보낸 요청도 대기 시간이 지연에 포함되므로 coordinated omission 이 보정된다.
+ * (service time 은 실제 전송부터 응답까지)
+ */
+public class LoadTest {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    public static void main(String[] args) throws Exception {
+        PerfOptions options = new PerfOptions(args);
+        int members = options.getInt("members", 10_000);
+        int teams = options.getInt("teams", 100);
+        int rate = options.getInt("rate", 200);
+        int clients = options.getInt("clients", 32);
+        int warmupSeconds = options.getInt("warmup", 5);
+        int durationSeconds = options.getInt("duration", 30);
+
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(DataJpaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "decorator.datasource.enabled=false",
+                        "logging.level.org.hibernate.SQL=warn")
+                .run();
+        try {
+            DatasetSpec spec = DatasetSpec.of(members, teams);
+            spec.setTeamSkew(Double.parseDouble(options.get("team-skew", "0")));
+            context.getBean(DatasetSeeder.class).seed(spec);
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort();
+
+            List<Target> targets = List.of(
+                    new Target("/members", i -> "/members?page=" + (i % 50) + "&size=20"),
+                    new Target("/members2", i -> "/members2?page=" + (i % 50) + "&size=20"),
+                    new Target("/members/{id}", i -> "/members/" + (1 + Math.floorMod(i * 31, members))),
+                    new Target("/members2/{id}", i -> "/members2/" + (1 + Math.floorMod(i * 17, members))));
+
+            System.out.printf("warmup %ds at %d req/s ...%n", warmupSeconds, rate);
+            run(baseUrl, targets, rate, clients, warmupSeconds);
+            System.out.printf("measure %ds at %d req/s with %d clients, %d members / %d teams%n",
+                    durationSeconds, rate, clients, members, teams);
+            Map<String, Result> results = run(baseUrl, targets, rate, clients, durationSeconds);
+            report(results, durationSeconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    static Map<String, Result> run(String baseUrl, List<Target> targets, int rate, int clients, int seconds) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        Map<String, Result> results = new TreeMap<>();
+        targets.forEach(target -> results.put(target.name, new Result()));
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong ticket = new AtomicLong();
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            workers.submit(() -> {
+                while (true) {
+                    long i = ticket.getAndIncrement();
+                    long intended = start + i * intervalNanos;
+                    if (intended >= end) {
+                        return;
+                    }
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    Target target = targets.get((int) (i % targets.size()));
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + target.path.apply(i))).GET().build();
+                    long sent = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long received = System.nanoTime();
+                    results.get(target.name).record(received - intended, received - sent, ok);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return results;
+    }
+
+    static void report(Map<String, Result> results, int seconds) {
+        System.out.printf("%-16s %8s %7s %9s | %9s %9s %9s %9s %9s | %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50", "p90", "p99", "p99.9", "max", "svc p50", "svc p99");
+        results.forEach((name, result) -> {
+            Histogram latency = result.latency;
+            Histogram service = result.service;
+            System.out.printf("%-16s %8d %7d %9.1f | %9.2f %9.2f %9.2f %9.2f %9.2f | %9.2f %9.2f%n",
+                    name, latency.getTotalCount(), result.errors.get(), latency.getTotalCount() / (double) seconds,
+                    millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                    millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue()),
+                    millis(service.getValueAtPercentile(50)), millis(service.getValueAtPercentile(99)));
+        });
+        System.out.println("latency = coordinated-omission corrected (ms), svc = service time (ms)");
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    static class Target {
+        final String name;
+        final LongFunction<String> path;
+
+        Target(String name, LongFunction<String> path) {
+            this.name = name;
+            this.path = path;
+        }
+    }
+
+    static class Result {
+        final Histogram latency = new Histogram(MAX_LATENCY_NANOS, 3);
+        final Histogram service = new Histogram(MAX_LATENCY_NANOS, 3);
+        final AtomicLong errors = new AtomicLong();
+
+        synchronized void record(long latencyNanos, long serviceNanos, boolean ok) {
+            latency.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+            service.recordValue(Math.min(serviceNanos, MAX_LATENCY_NANOS));
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
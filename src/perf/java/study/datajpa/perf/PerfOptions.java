@@ -0,0 +1,30 @@
+package study.datajpa.perf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * --key=value 형식의 실행 인자
+ */
+public class PerfOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public PerfOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("--key=value 형식이어야 합니다: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return values.containsKey(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+    }
+
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+}
@@ -0,0 +1,55 @@
+package study.datajpa.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import study.datajpa.dto.MemberDto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * /members2 응답(Page&lt;MemberDto&gt;)을 JSON 과 CBOR 로 인코딩/디코딩(readTree)해서 크기와 시간을 비교한다.
+ * 두 ObjectMapper 는 앱과 같은 방식(Jackson2ObjectMapperBuilder)으로 만든다.
+ * ./gradlew responseFormatBenchmark -PbenchmarkArgs="--page-size=2000 --iterations=2000"
+ */
+public class ResponseFormatBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        PerfOptions options = new PerfOptions(args);
+        int pageSize = options.getInt("page-size", 1000);
+        int iterations = options.getInt("iterations", 1000);
+
+        List<MemberDto> content = IntStream.range(0, pageSize)
+                .mapToObj(i -> new MemberDto((long) i + 1, "member" + i, i % 3 == 0 ? null : "team" + (i % 50)))
+                .collect(Collectors.toList());
+        Page<MemberDto> page = new PageImpl<>(content, PageRequest.of(0, pageSize), pageSize * 100L);
+
+        System.out.printf("%-6s %12s %14s %14s%n", "format", "bytes", "encode us/op", "decode us/op");
+        run("json", Jackson2ObjectMapperBuilder.json().build(), page, iterations);
+        run("cbor", Jackson2ObjectMapperBuilder.cbor().build(), page, iterations);
+    }
+
+    private static void run(String name, ObjectMapper mapper, Page<MemberDto> page, int iterations) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(page);
+        for (int i = 0; i < iterations; i++) { // warm up
+            mapper.readTree(mapper.writeValueAsBytes(page));
+        }
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            bytes = mapper.writeValueAsBytes(page);
+            long encoded = System.nanoTime();
+            mapper.readTree(bytes);
+            decodeNanos += System.nanoTime() - encoded;
+            encodeNanos += encoded - start;
+        }
+        System.out.printf("%-6s %12d %14.1f %14.1f%n", name, bytes.length,
+                encodeNanos / 1000.0 / iterations, decodeNanos / 1000.0 / iterations);
+    }
+}
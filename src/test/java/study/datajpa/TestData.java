@@ -0,0 +1,19 @@
+package study.datajpa;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 롤백하지 않고 커밋하는 테스트가 공유 DB(jdbc:h2:tcp)에 남긴 회원과 팀을 지운다.
+ * 남은 행은 전체 회원 수를 세는 테스트(MemberRepositoryTest.basicCRUD, bulkUpdate 등)를 깨뜨린다.
+ * username, 팀 이름이 prefix 로 시작하는 행을 지우므로 테스트마다 겹치지 않는 접두어를 쓴다.
+ */
+public class TestData {
+
+    public static void deleteByPrefix(JdbcTemplate jdbcTemplate, String... prefixes) {
+        for (String prefix : prefixes) {
+            jdbcTemplate.update("delete from member where username like ?", prefix + "%");
+            jdbcTemplate.update("delete from team_statistics where team_id in (select team_id from team where name like ?)", prefix + "%");
+            jdbcTemplate.update("delete from team where name like ?", prefix + "%");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package study.datajpa.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    @DisplayName("빠른 응답이 이어지면 한도가 늘고, 느린 응답이 오면 곱셈으로 줄어든다")
+    public void aimd() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 0.5, 50, 10);
+
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 10; j++) {
+                limit.acquire(1, 0);
+            }
+            for (int j = 0; j < 10; j++) {
+                limit.release(1, FAST);
+            }
+        }
+        int increased = limit.snapshot().getLimit();
+        assertThat(increased).isGreaterThan(10);
+
+        limit.acquire(1, 0);
+        limit.release(1, SLOW);
+        assertThat(limit.snapshot().getLimit()).isLessThanOrEqualTo(increased / 2 + 1);
+    }
+
+    @Test
+    @DisplayName("단위 가중치당 지연으로 판단하므로 큰 페이지는 그만큼 오래 걸려도 한도를 줄이지 않는다")
+    public void weightedLatency() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 0.5, 50, 10);
+
+        limit.acquire(5, 0);
+        limit.release(5, TimeUnit.MILLISECONDS.toNanos(200)); // 40ms / 단위
+
+        assertThat(limit.snapshot().getLimit()).isGreaterThanOrEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("한도가 차면 대기 없이는 거절하고, 대기 중인 요청은 자리가 나면 들어간다")
+    public void shedAndQueue() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 4, 4, 0.5, 50, 10);
+
+        assertThat(limit.acquire(4, 0)).isTrue();
+        assertThat(limit.acquire(1, 0)).isFalse();
+        assertThat(limit.snapshot().getShed()).isEqualTo(1);
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limit.acquire(2, 5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertThat(queued).isNotDone();
+
+        limit.release(4, FAST);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limit.snapshot().getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("실행 중인 요청이 없으면 한도보다 무거운 요청도 들어간다")
+    public void oversizedWhenIdle() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 4, 4, 0.5, 50, 10);
+
+        assertThat(limit.acquire(100, 0)).isTrue();
+        assertThat(limit.acquire(1, 0)).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionInterceptorTest {
+
+    @Test
+    @DisplayName("가중치는 엔드포인트의 @PageableDefault 를 기본값으로 쓰고 max-page-size 로 잘린 페이지 크기로 계산한다")
+    public void weightFromEffectivePageSize() throws Exception {
+        PageableHandlerMethodArgumentResolver resolver = new PageableHandlerMethodArgumentResolver();
+        resolver.setMaxPageSize(2000);
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(
+                new AdaptiveConcurrencyLimit(20, 4, 200, 0.9, 50, 50), resolver, 20, 2000, 200);
+        HandlerMethod small = new HandlerMethod(new ListController(), "small", Pageable.class);
+        HandlerMethod large = new HandlerMethod(new ListController(), "large", Pageable.class);
+
+        assertThat(interceptor.weightOf(new MockHttpServletRequest(), small)).isEqualTo(1); // 5
+        assertThat(interceptor.weightOf(new MockHttpServletRequest(), large)).isEqualTo(5); // 100
+        assertThat(interceptor.weightOf(sizeRequest("60"), small)).isEqualTo(3);
+        assertThat(interceptor.weightOf(sizeRequest("1000000"), small)).isEqualTo(100); // 2000 으로 잘린다.
+        assertThat(interceptor.weightOf(sizeRequest("abc"), large)).isEqualTo(5); // 잘못된 값은 기본값
+    }
+
+    @Test
+    @DisplayName("limit 파라미터로 개수를 받는 엔드포인트는 [1, max-page-size] 로 자른 limit 으로 가중치를 계산한다")
+    public void weightFromLimit() throws Exception {
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(
+                new AdaptiveConcurrencyLimit(20, 4, 200, 0.9, 50, 50), new PageableHandlerMethodArgumentResolver(), 20, 2000, 200);
+        HandlerMethod search = new HandlerMethod(new ListController(), "search", String.class, int.class);
+
+        assertThat(interceptor.weightOf(new MockHttpServletRequest(), search)).isEqualTo(1); // 기본값 20
+        assertThat(interceptor.weightOf(limitRequest("100"), search)).isEqualTo(5);
+        assertThat(interceptor.weightOf(limitRequest("1000000"), search)).isEqualTo(100); // 2000 으로 잘린다.
+        assertThat(interceptor.weightOf(limitRequest("-5"), search)).isEqualTo(1);
+        assertThat(interceptor.weightOf(limitRequest("abc"), search)).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest sizeRequest(String size) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("size", size);
+        return request;
+    }
+
+    private static MockHttpServletRequest limitRequest(String limit) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("limit", limit);
+        return request;
+    }
+
+    static class ListController {
+
+        public void small(@PageableDefault(size = 5) Pageable pageable) {
+        }
+
+        public void large(@PageableDefault(size = 100) Pageable pageable) {
+        }
+
+        public void search(@RequestParam("keyword") String keyword,
+                           @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        }
+    }
+}
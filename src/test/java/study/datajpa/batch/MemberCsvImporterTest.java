@@ -0,0 +1,105 @@
+package study.datajpa.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.event.MemberChangeEvent;
+import study.datajpa.event.MemberChangeType;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamStatisticsRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(MemberCsvImporterTest.ImportEvents.class)
+class MemberCsvImporterTest {
+
+    @Autowired MemberCsvImporter memberCsvImporter;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamStatisticsRepository teamStatisticsRepository;
+    @Autowired ImportEvents importEvents;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @TempDir Path tempDir;
+
+    @Test
+    @DisplayName("CSV 를 StatelessSession 배치로 적재하고 팀 이름을 id 로 연결한다")
+    public void importCsv() throws Exception {
+        // given
+        List<String> lines = new ArrayList<>();
+        lines.add("username,age,teamName");
+        for (int i = 0; i < 250; i++) {
+            lines.add("csvMember" + i + "," + (i % 50) + ",csvTeam" + (i % 3));
+        }
+        lines.add("csvNoTeam,20,");
+        Path file = Files.write(tempDir.resolve("members.csv"), lines);
+
+        // when
+        MemberCsvImporter.ImportResult result = memberCsvImporter.importCsv(file);
+
+        // then
+        assertThat(result.getMembers()).isEqualTo(251);
+        assertThat(result.getTeamsCreated()).isEqualTo(3);
+
+        Member member = memberRepository.findEntityGraphByUsername("csvMember4").get(0);
+        assertThat(member.getAge()).isEqualTo(4);
+        assertThat(member.getTeam().getName()).isEqualTo("csvTeam1");
+        assertThat(memberRepository.findEntityGraphByUsername("csvNoTeam").get(0).getTeam()).isNull();
+    }
+
+    @Test
+    @DisplayName("중간 배치에서 실패해도 커밋된 회원 수로 BULK_IMPORTED 를 발행하고 예외에 커밋된 회원 수를 알린다")
+    public void importCsvPartially() throws Exception {
+        // given: 첫 배치(100건)는 커밋되고 두 번째 배치에서 형식 오류
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            lines.add("csvPartial" + i + "," + i + ",csvPartialTeam");
+        }
+        lines.add("csvBroken");
+        Path file = Files.write(tempDir.resolve("partial.csv"), lines);
+        importEvents.events.clear();
+
+        // when
+        assertThatThrownBy(() -> memberCsvImporter.importCsv(file))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("커밋된 회원 100명");
+
+        // then
+        assertThat(importEvents.events).extracting(MemberChangeEvent::getAffectedCount).containsExactly(100);
+        Member member = memberRepository.findEntityGraphByUsername("csvPartial0").get(0);
+        assertThat(teamStatisticsRepository.findById(member.getTeam().getId())).isPresent();
+        assertThat(memberRepository.findEntityGraphByUsername("csvPartial120")).isEmpty();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "csv");
+    }
+
+    static class ImportEvents {
+
+        final List<MemberChangeEvent> events = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void on(MemberChangeEvent event) {
+            if (event.getType() == MemberChangeType.BULK_IMPORTED) {
+                events.add(event);
+            }
+        }
+    }
+}
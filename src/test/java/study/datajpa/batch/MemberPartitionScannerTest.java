@@ -0,0 +1,56 @@
+package study.datajpa.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MemberPartitionScannerTest {
+
+    @Autowired MemberPartitionScanner memberPartitionScanner;
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "scanMember");
+    }
+
+    @Test
+    @DisplayName("id 범위를 나눠 여러 스레드에서 청크 단위로 전체 회원을 한 번씩 처리한다")
+    public void scan() {
+        // given
+        List<Long> ids = IntStream.range(0, 10)
+                .mapToObj(i -> memberRepository.save(new Member("scanMember" + i, 10)).getId())
+                .collect(toList());
+        long min = ids.stream().mapToLong(Long::longValue).min().orElseThrow();
+        long max = ids.stream().mapToLong(Long::longValue).max().orElseThrow();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        // when (테스트가 넣은 id 범위만 스캔)
+        long count = memberPartitionScanner.scan(min, max, 3, 2, (em, chunk) -> {
+            threads.add(Thread.currentThread().getName());
+            assertThat(chunk).hasSizeLessThanOrEqualTo(2);
+            return chunk.stream().filter(member -> ids.contains(member.getId())).count();
+        }, 0L, Long::sum);
+
+        // then
+        assertThat(count).isEqualTo(10);
+        assertThat(threads.size()).isGreaterThan(1);
+    }
+}
@@ -0,0 +1,132 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.TestData;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MemberNearCacheTest {
+
+    @Autowired MemberNearCache memberNearCache;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        memberNearCache.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "cacheMember", "cacheTeam");
+    }
+
+    @Test
+    @DisplayName("같은 username 재조회는 캐시에서 응답한다")
+    public void hit() {
+        // given
+        Team team = teamRepository.save(new Team("cacheTeam"));
+        memberRepository.save(new Member("cacheMember1", 10, team));
+        MemberCacheStats before = memberNearCache.stats();
+
+        // when
+        List<MemberDto> first = memberNearCache.findByUsername("cacheMember1");
+        List<MemberDto> second = memberNearCache.findByUsername("cacheMember1");
+
+        // then
+        MemberCacheStats after = memberNearCache.stats();
+        assertThat(second).isSameAs(first);
+        assertThat(second.get(0).getTeamName()).isEqualTo("cacheTeam");
+        assertThat(after.getMisses() - before.getMisses()).isEqualTo(1);
+        assertThat(after.getHits() - before.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("이름 변경이 커밋되면 이전 username 캐시가 무효화된다")
+    public void evictOnRename() {
+        // given
+        Member member = memberRepository.save(new Member("cacheMember2", 10));
+        assertThat(memberNearCache.findByUsername("cacheMember2")).hasSize(1);
+
+        // when
+        tx.executeWithoutResult(status ->
+                memberRepository.findById(member.getId()).orElseThrow().setUsername("cacheMember2-renamed"));
+
+        // then
+        assertThat(memberNearCache.findByUsername("cacheMember2")).isEmpty();
+        assertThat(memberNearCache.findByUsername("cacheMember2-renamed")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("bulkAgePlus 는 캐시 전체를 비운다")
+    public void clearOnBulk() {
+        // given
+        memberRepository.save(new Member("cacheMember3", 10));
+        memberNearCache.findByUsername("cacheMember3");
+
+        // when
+        memberRepository.bulkAgePlus(1000);
+
+        // then
+        assertThat(memberNearCache.stats().getSize()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("팀 이름 변경이 커밋되면 그 팀 회원의 캐시된 teamName 이 무효화된다")
+    public void evictOnTeamRename() {
+        // given
+        Team team = teamRepository.save(new Team("cacheTeam4"));
+        memberRepository.save(new Member("cacheMember4", 10, team));
+        memberRepository.save(new Member("cacheMember5", 10));
+        assertThat(memberNearCache.findByUsername("cacheMember4").get(0).getTeamName()).isEqualTo("cacheTeam4");
+        List<MemberDto> other = memberNearCache.findByUsername("cacheMember5");
+
+        // when
+        tx.executeWithoutResult(status ->
+                teamRepository.findById(team.getId()).orElseThrow().setName("cacheTeam4-renamed"));
+
+        // then
+        assertThat(memberNearCache.findByUsername("cacheMember4").get(0).getTeamName()).isEqualTo("cacheTeam4-renamed");
+        assertThat(memberNearCache.findByUsername("cacheMember5")).isSameAs(other);
+    }
+
+    @Test
+    @DisplayName("max-size 를 넘으면 오래 접근하지 않은 항목부터 비운다")
+    public void evictLeastRecentlyUsed() {
+        // given
+        MemberNearCache cache = new MemberNearCache(memberRepository, 10);
+        List<MemberDto> hot = cache.findByUsername("cacheLru0");
+
+        // when
+        for (int i = 1; i <= 30; i++) {
+            cache.findByUsername("cacheLru" + i);
+            cache.findByUsername("cacheLru0"); // 계속 접근
+        }
+
+        // then
+        assertThat(cache.stats().getSize()).isLessThanOrEqualTo(10);
+        assertThat(cache.stats().getEvictions()).isGreaterThanOrEqualTo(20);
+        assertThat(cache.findByUsername("cacheLru0")).isSameAs(hot);
+    }
+}
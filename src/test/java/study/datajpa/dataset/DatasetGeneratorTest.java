@@ -0,0 +1,78 @@
+package study.datajpa.dataset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:dataset;DB_CLOSE_DELAY=-1")
+class DatasetGeneratorTest {
+
+    @Autowired DatasetSeeder datasetSeeder;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired MemberRepository memberRepository;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.execute("delete from member");
+        jdbcTemplate.execute("delete from team");
+    }
+
+    @Test
+    @DisplayName("같은 설정이면 같은 데이터가 만들어진다")
+    public void deterministic() {
+        DatasetSpec spec = DatasetSpec.of(20_000, 200);
+        spec.setAgeDistribution(DatasetSpec.AgeDistribution.NORMAL);
+
+        DatasetGenerator.Summary first = datasetSeeder.seed(spec);
+        List<Map<String, Object>> firstRows = aggregates();
+        clean();
+        DatasetGenerator.Summary second = datasetSeeder.seed(spec);
+
+        assertThat(second.getChecksum()).isEqualTo(first.getChecksum());
+        assertThat(aggregates()).isEqualTo(firstRows);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member", Long.class)).isEqualTo(20_000);
+    }
+
+    @Test
+    @DisplayName("팀 크기 skew, username 충돌, 팀 없는 회원 비율이 반영된다")
+    public void skew() {
+        DatasetSpec spec = DatasetSpec.of(20_000, 200);
+        spec.setTeamSkew(1.2);
+        spec.setUsernameCollisionRatio(0.3);
+        spec.setNoTeamRatio(0.1);
+
+        DatasetGenerator.Summary summary = datasetSeeder.seed(spec);
+
+        assertThat(summary.getLargestTeam()).isGreaterThan(20_000 / 200 * 10);
+        Long distinctUsernames = jdbcTemplate.queryForObject("select count(distinct username) from member", Long.class);
+        assertThat(distinctUsernames).isBetween(13_000L, 15_000L);
+        Long noTeam = jdbcTemplate.queryForObject("select count(*) from member where team_id is null", Long.class);
+        assertThat(noTeam).isBetween(1_600L, 2_400L);
+        assertThat(memberRepository.findByUsername("common0")).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("적재 후 JPA 로 저장하는 엔티티의 id 는 적재된 id 와 겹치지 않는다")
+    public void sequenceMovedPastSeededIds() {
+        datasetSeeder.seed(DatasetSpec.of(1_000, 10));
+
+        Member saved = memberRepository.save(new Member("afterSeed", 10));
+
+        assertThat(saved.getId()).isGreaterThan(1_010L);
+    }
+
+    private List<Map<String, Object>> aggregates() {
+        return jdbcTemplate.queryForList(
+                "select team_id, count(*) cnt, sum(age) age_sum from member group by team_id order by team_id");
+    }
+}
@@ -0,0 +1,125 @@
+package study.datajpa.deadline;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(QueryDeadlinesTest.SlowController.class)
+class QueryDeadlinesTest {
+
+    static final String SLOW_QUERY =
+            "select sum(a.x * b.x) from system_range(1, 100000) a, system_range(1, 100000) b";
+
+    @Autowired QueryDeadlines queryDeadlines;
+    @Autowired DeadlineMetrics deadlineMetrics;
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    @DisplayName("예산을 넘긴 쿼리는 예산 시점에 취소된다")
+    public void cancelAtDeadline() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> queryDeadlines.call("test-slow", 300, () ->
+                tx.execute(status -> em.createNativeQuery(SLOW_QUERY).getSingleResult())))
+                .isInstanceOf(PersistenceException.class);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertThat(elapsedMillis).isLessThan(5000);
+
+        DeadlineMetrics.EndpointSnapshot snapshot = deadlineMetrics.snapshot().get("test-slow");
+        assertThat(snapshot.getTimedOut()).isEqualTo(1);
+        assertThat(snapshot.getCancelledStatements()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("예산이 남아 있으면 리포지토리 쿼리는 그대로 실행되고, 예산이 끝난 뒤의 문장은 실행 전에 거절된다")
+    public void rejectAfterDeadline() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        Long count = queryDeadlines.call("test-fast", 5000, () -> tx.execute(status -> memberRepository.count()));
+        assertThat(count).isNotNull();
+        assertThat(deadlineMetrics.snapshot().get("test-fast").getTimedOut()).isZero();
+
+        assertThatThrownBy(() -> queryDeadlines.call("test-expired", 50, () -> {
+            Thread.sleep(200);
+            return tx.execute(status -> memberRepository.count());
+        })).isInstanceOf(RuntimeException.class);
+        assertThat(deadlineMetrics.snapshot().get("test-expired").getRejectedStatements()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("컨테이너가 비동기 요청 오류(클라이언트 끊김)를 알리면 예산 전에 실행 중인 문장을 취소한다")
+    public void cancelOnDisconnect() throws Exception {
+        // given
+        MvcResult result = mockMvc.perform(get("/test/deadline/slow"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Thread.sleep(300); // 쿼리가 시작될 때까지
+        long start = System.nanoTime();
+
+        // when
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext, new IOException("Broken pipe")));
+        }
+
+        // then
+        assertThat(result.getAsyncResult(5000)).isInstanceOf(RuntimeException.class);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertThat(elapsedMillis).isLessThan(1500); // 예산(2000ms) 전에 끝난다.
+
+        assertThat(SlowController.workerThread).startsWith("query-deadline-");
+        DeadlineMetrics.EndpointSnapshot snapshot = deadlineMetrics.snapshot().get("test-disconnect");
+        assertThat(snapshot.getDisconnected()).isEqualTo(1);
+        assertThat(snapshot.getTimedOut()).isZero();
+        assertThat(snapshot.getCancelledStatements() + snapshot.getRejectedStatements()).isEqualTo(1);
+    }
+
+    @RestController
+    static class SlowController {
+
+        static volatile String workerThread;
+
+        @Autowired QueryDeadlines queryDeadlines;
+        @Autowired EntityManager em;
+        @Autowired PlatformTransactionManager transactionManager;
+
+        @GetMapping("/test/deadline/slow")
+        public WebAsyncTask<Object> slow() {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            return queryDeadlines.within("test-disconnect", () -> {
+                workerThread = Thread.currentThread().getName();
+                return tx.execute(status -> em.createNativeQuery(SLOW_QUERY).getSingleResult());
+            });
+        }
+    }
+}
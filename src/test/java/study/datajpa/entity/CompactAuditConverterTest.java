@@ -0,0 +1,37 @@
+package study.datajpa.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactAuditConverterTest {
+
+    @Test
+    @DisplayName("UUID 문자열은 16 byte 로 저장되고 그대로 복원된다")
+    public void uuidBytes() {
+        UuidBytesConverter converter = new UuidBytesConverter();
+        String uuid = UUID.randomUUID().toString();
+
+        byte[] bytes = converter.convertToDatabaseColumn(uuid);
+
+        assertThat(bytes).hasSize(16);
+        assertThat(converter.convertToEntityAttribute(bytes)).isEqualTo(uuid);
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("LocalDateTime 은 epoch millis 로 저장되고 밀리초 단위까지 복원된다")
+    public void epochMillis() {
+        EpochMillisConverter converter = new EpochMillisConverter();
+        LocalDateTime time = LocalDateTime.of(2021, 7, 1, 12, 30, 15, 123_000_000);
+
+        Long millis = converter.convertToDatabaseColumn(time);
+
+        assertThat(converter.convertToEntityAttribute(millis)).isEqualTo(time);
+        assertThat(converter.convertToEntityAttribute(0L)).isEqualTo(LocalDateTime.of(1970, 1, 1, 0, 0));
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpa.fetch;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class FetchPlanTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired EntityManager em;
+
+    Member member1;
+
+    @BeforeEach
+    void setUp() {
+        Team team = teamRepository.save(new Team("fetchTeam"));
+        member1 = memberRepository.save(new Member("fetchMember1", 7071, team));
+        memberRepository.save(new Member("fetchMember2", 7071, team));
+        memberRepository.save(new Member("fetchMember3", 7071, team));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("FetchPlan.none 은 메소드에 선언된 @EntityGraph 를 끄고, 계획이 없으면 원래대로 fetch join 한다")
+    public void overrideDeclaredGraph() {
+        List<Member> lazy = FetchPlans.with(FetchPlan.none(Member.class),
+                () -> memberRepository.findEntityGraphByUsername("fetchMember1"));
+        assertThat(Hibernate.isInitialized(lazy.get(0).getTeam())).isFalse();
+        em.clear();
+
+        List<Member> fetched = memberRepository.findEntityGraphByUsername("fetchMember1");
+        assertThat(Hibernate.isInitialized(fetched.get(0).getTeam())).isTrue();
+    }
+
+    @Test
+    @DisplayName("페이징 쿼리에도 호출 단위로 속성 경로 계획을 적용하고, count 쿼리는 영향받지 않는다")
+    public void pagedQuery() {
+        Page<Member> page = FetchPlans.with(FetchPlan.attributes(Member.class, "team"),
+                () -> memberRepository.findByAge(7071, PageRequest.of(0, 2)));
+
+        assertThat(page.getTotalElements()).isEqualTo(3); // findByAge 의 count 쿼리도 나이로 거른다.
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(2)
+                .allMatch(member -> member.getAge() == 7071)
+                .allMatch(member -> member.getUsername().startsWith("fetchMember"))
+                .allMatch(member -> Hibernate.isInitialized(member.getTeam()));
+    }
+
+    @Test
+    @DisplayName("이름 있는 그래프(Member.all)와 findById 에도 적용된다")
+    public void namedGraphAndFindById() {
+        List<Member> members = FetchPlans.with(FetchPlan.named(Member.class, "Member.all"),
+                () -> memberRepository.findByUsername("fetchMember2"));
+        assertThat(Hibernate.isInitialized(members.get(0).getTeam())).isTrue();
+        em.clear();
+
+        Member found = FetchPlans.with(FetchPlan.attributes(Member.class, "team"),
+                () -> memberRepository.findById(member1.getId()).orElseThrow());
+        assertThat(Hibernate.isInitialized(found.getTeam())).isTrue();
+        em.clear();
+
+        Member plain = memberRepository.findById(member1.getId()).orElseThrow();
+        assertThat(Hibernate.isInitialized(plain.getTeam())).isFalse();
+    }
+}
@@ -0,0 +1,127 @@
+package study.datajpa.guard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.pool.PoolMetrics;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(LazyLoadGuardTest.ClosedSessionController.class)
+class LazyLoadGuardTest {
+
+    @Autowired LazyLoadGuard lazyLoadGuard;
+    @Autowired PoolMetrics poolMetrics;
+    @Autowired EntityManagerFactory emf;
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "lazyGuard");
+    }
+
+    @Test
+    @DisplayName("세션은 열려 있지만 트랜잭션이 없을 때의 지연 로딩은 테스트 설정(FAIL)에서 바로 실패한다")
+    public void failOutsideTransaction() {
+        // given
+        Team team = teamRepository.save(new Team("lazyGuardTeam"));
+        Member member = memberRepository.save(new Member("lazyGuardMember", 10, team));
+        long before = lazyLoadGuard.snapshot().getOrDefault("(none)", 0L);
+
+        EntityManager em = emf.createEntityManager(); // OSIV 처럼 트랜잭션 없이 열린 세션
+        try {
+            Member found = em.find(Member.class, member.getId());
+
+            // when, then
+            assertThatThrownBy(() -> found.getTeam().getName())
+                    .isInstanceOf(LazyInitializationException.class)
+                    .hasMessageContaining("트랜잭션 밖 지연 로딩");
+        } finally {
+            em.close();
+        }
+        assertThat(lazyLoadGuard.snapshot().get("(none)")).isEqualTo(before + 1);
+    }
+
+    @Test
+    @DisplayName("OSIV 없이 /members 가 팀 이름까지 응답하고, 엔드포인트별 요청 시간과 커넥션 점유 시간이 집계된다")
+    public void listWithoutOpenInView() throws Exception {
+        // given
+        Team team = teamRepository.save(new Team("lazyGuardListTeam"));
+        memberRepository.save(new Member("lazyGuardListMember", 10, team));
+
+        // when
+        String json = mockMvc.perform(get("/members").param("size", "20").param("sort", "id,desc"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        boolean found = false;
+        for (JsonNode node : new ObjectMapper().readTree(json).get("content")) {
+            if (node.get("username").asText().equals("lazyGuardListMember")) {
+                assertThat(node.get("teamName").asText()).isEqualTo("lazyGuardListTeam");
+                found = true;
+            }
+        }
+        assertThat(found).isTrue();
+        assertThat(lazyLoadGuard.snapshot()).doesNotContainKey("GET /members");
+
+        PoolMetrics.EndpointSnapshot endpoint = poolMetrics.snapshot().getEndpoints().get("GET /members");
+        assertThat(endpoint.getRequest().getCount()).isGreaterThanOrEqualTo(1);
+        assertThat(endpoint.getHold().getCount()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("OSIV 없이 닫힌 세션에서 일어난 지연 로딩 예외도 엔드포인트별로 집계된다")
+    public void countClosedSessionLoads() {
+        // given
+        Team team = teamRepository.save(new Team("lazyGuardClosedTeam"));
+        Member member = memberRepository.save(new Member("lazyGuardClosedMember", 10, team));
+        String endpoint = "GET /test/lazy-guard/{id}";
+        long before = lazyLoadGuard.closedSessionSnapshot().getOrDefault(endpoint, 0L);
+
+        // when, then
+        assertThatThrownBy(() -> mockMvc.perform(get("/test/lazy-guard/" + member.getId())))
+                .hasRootCauseInstanceOf(LazyInitializationException.class);
+        assertThat(lazyLoadGuard.closedSessionSnapshot().get(endpoint)).isEqualTo(before + 1);
+        assertThat(lazyLoadGuard.snapshot()).doesNotContainKey(endpoint);
+    }
+
+    @RestController
+    static class ClosedSessionController {
+
+        @Autowired MemberRepository memberRepository;
+
+        @GetMapping("/test/lazy-guard/{id}")
+        public String teamName(@PathVariable("id") Long id) {
+            return memberRepository.findById(id).orElseThrow().getTeam().getName(); // 트랜잭션이 끝나 세션이 닫혔다.
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package study.datajpa.guard;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "persistence.guard.warn-size=100")
+@Import(PersistenceContextGuardTest.GuardedService.class)
+class PersistenceContextGuardTest {
+
+    @Autowired GuardedService guardedService;
+    @Autowired PersistenceContextGuard persistenceContextGuard;
+
+    @Test
+    @DisplayName("@BatchTransaction 은 flushSize 마다 flush + clear 해서 영속성 컨텍스트 크기를 제한한다")
+    public void batchFlushAndClear() {
+        long before = persistenceContextGuard.getBatchFlushes();
+
+        int maxManaged = guardedService.saveInBatch(300);
+
+        assertThat(maxManaged).isLessThan(50);
+        assertThat(persistenceContextGuard.getBatchFlushes() - before).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("일반 트랜잭션은 warn-size 를 넘으면 트랜잭션당 한 번만 경고한다")
+    public void warnOncePerTransaction() {
+        long before = persistenceContextGuard.getWarnings();
+
+        int maxManaged = guardedService.saveInOneTransaction(150);
+
+        assertThat(maxManaged).isEqualTo(150);
+        assertThat(persistenceContextGuard.getWarnings() - before).isEqualTo(1);
+    }
+
+    /**
+     * 크기만 재고 롤백한다. (공유 DB 에 회원을 남기지 않는다)
+     */
+    static class GuardedService {
+
+        @Autowired MemberRepository memberRepository;
+        @Autowired EntityManager em;
+
+        @Transactional
+        @BatchTransaction(flushSize = 50)
+        public int saveInBatch(int count) {
+            return save("guardBatchMember", count);
+        }
+
+        @Transactional
+        public int saveInOneTransaction(int count) {
+            return save("guardMember", count);
+        }
+
+        private int save(String prefix, int count) {
+            int maxManaged = 0;
+            for (int i = 0; i < count; i++) {
+                memberRepository.save(new Member(prefix + i, i));
+                maxManaged = Math.max(maxManaged,
+                        em.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities());
+            }
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return maxManaged;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpa.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AllocatedSequenceGeneratorTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "idBlock", "idRestart");
+    }
+
+    @Test
+    @DisplayName("회원과 팀은 각자의 시퀀스에서 블록 단위로 id 를 받는다")
+    public void perEntityBlocks() {
+        // given
+        assertThat(increment("MEMBER_SEQ")).isEqualTo(100);
+        assertThat(increment("TEAM_SEQ")).isEqualTo(50);
+        long memberSeqBefore = currentValue("MEMBER_SEQ");
+        long teamSeqBefore = currentValue("TEAM_SEQ");
+
+        // when
+        Team team = teamRepository.save(new Team("idBlockTeam"));
+        List<Member> members = memberRepository.saveAll(IntStream.range(0, 250)
+                .mapToObj(i -> new Member("idBlockMember" + i, i, team))
+                .collect(Collectors.toList()));
+
+        // then
+        assertThat(members.stream().map(Member::getId).distinct()).hasSize(250);
+        long memberSequenceCalls = (currentValue("MEMBER_SEQ") - memberSeqBefore) / 100;
+        assertThat(memberSequenceCalls).isLessThanOrEqualTo(4); // 250 건에 시퀀스 호출 최대 4 번 (남은 블록 포함)
+        assertThat(currentValue("TEAM_SEQ") - teamSeqBefore).isLessThanOrEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("시퀀스를 다시 시작하면 메모리에 남은 블록을 버리고 새 위치부터 id 를 받는다")
+    public void restartDiscardsCachedBlocks() {
+        // given
+        memberRepository.save(new Member("idRestart1", 10)); // 블록 확보
+        long next = jdbcTemplate.queryForObject(
+                "select max(current_value) from information_schema.sequences where sequence_schema = 'PUBLIC'", Long.class) + 10_000;
+
+        // when
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            SequenceRestarts.restartAll(connection, next);
+            return null;
+        });
+        Member second = memberRepository.save(new Member("idRestart2", 20));
+
+        // then
+        assertThat(second.getId()).isGreaterThanOrEqualTo(next);
+    }
+
+    private long increment(String sequence) {
+        return jdbcTemplate.queryForObject(
+                "select increment from information_schema.sequences where sequence_name = ?", Long.class, sequence);
+    }
+
+    private long currentValue(String sequence) {
+        return jdbcTemplate.queryForObject(
+                "select current_value from information_schema.sequences where sequence_name = ?", Long.class, sequence);
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SequencePrefetcherTest {
+
+    @Test
+    @DisplayName("첫 값은 직접 가져오고, 이후 값은 미리 요청해 둔 값을 쓴다")
+    public void prefetchNextValue() {
+        // given
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong directCalls = new AtomicLong();
+        SequencePrefetcher prefetcher = new SequencePrefetcher(sequence::incrementAndGet);
+
+        // when
+        long first = prefetcher.next(() -> {
+            directCalls.incrementAndGet();
+            return sequence.incrementAndGet();
+        });
+        long second = prefetcher.next(() -> {
+            directCalls.incrementAndGet();
+            return sequence.incrementAndGet();
+        });
+
+        // then
+        assertThat(directCalls.get()).isEqualTo(1);
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("미리 가져오기가 실패하면 직접 가져온다")
+    public void fallbackToDirect() {
+        // given
+        SequencePrefetcher prefetcher = new SequencePrefetcher(() -> {
+            throw new IllegalStateException("prefetch failed");
+        });
+
+        // when
+        long first = prefetcher.next(() -> 1L);
+        long second = prefetcher.next(() -> 2L);
+
+        // then
+        assertThat(first).isEqualTo(1L);
+        assertThat(second).isEqualTo(2L);
+    }
+}
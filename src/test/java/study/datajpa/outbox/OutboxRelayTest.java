@@ -0,0 +1,81 @@
+package study.datajpa.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "outbox.relay.initial-delay=600000")
+class OutboxRelayTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired OutboxRelay outboxRelay;
+    @Autowired InMemoryOutboxSink sink;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        outboxRelay.relay();
+        sink.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "outbox");
+    }
+
+    @Test
+    @DisplayName("회원 생성, 팀 이동, 벌크 나이 증가가 아웃박스를 거쳐 발행된다")
+    public void relayMemberChanges() {
+        // given
+        Team teamA = teamRepository.save(new Team("outboxTeamA"));
+        Team teamB = teamRepository.save(new Team("outboxTeamB"));
+        Member member = memberRepository.save(new Member("outboxMember", 10, teamA));
+
+        tx.executeWithoutResult(status -> {
+            Member findMember = memberRepository.findById(member.getId()).orElseThrow();
+            findMember.changeTeam(teamRepository.findById(teamB.getId()).orElseThrow()); // save 호출 없이 dirty checking
+        });
+        memberRepository.bulkAgePlus(10);
+
+        // when
+        int sent = outboxRelay.relay();
+
+        // then
+        assertThat(sent).isGreaterThanOrEqualTo(3);
+        assertThat(sink.getPayloads())
+                .anyMatch(p -> p.contains("\"type\":\"CREATED\"") && p.contains("\"memberId\":" + member.getId()))
+                .anyMatch(p -> p.contains("\"type\":\"UPDATED\"") && p.contains("\"memberId\":" + member.getId()))
+                .anyMatch(p -> p.contains("\"type\":\"BULK_AGED\""));
+    }
+
+    @Test
+    @DisplayName("롤백된 변경은 아웃박스에 남지 않는다")
+    public void rollbackDiscardsEvents() {
+        // when
+        tx.executeWithoutResult(status -> {
+            memberRepository.save(new Member("rolledBack", 10));
+            status.setRollbackOnly();
+        });
+
+        // then
+        assertThat(outboxRelay.relay()).isEqualTo(0);
+    }
+}
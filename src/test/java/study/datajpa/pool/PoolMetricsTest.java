@@ -0,0 +1,48 @@
+package study.datajpa.pool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PoolMetricsTest {
+
+    @Autowired PoolMetrics poolMetrics;
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "poolMember");
+    }
+
+    @Test
+    @DisplayName("커넥션 획득/반납이 집계되고 바인딩된 엔드포인트별로도 집계된다")
+    public void recordAcquireAndUsage() {
+        // given
+        PoolMetrics.Snapshot before = poolMetrics.snapshot();
+
+        // when
+        PoolMetrics.bindEndpoint("GET /test");
+        try {
+            memberRepository.save(new Member("poolMember", 10));
+        } finally {
+            PoolMetrics.unbindEndpoint();
+        }
+
+        // then
+        PoolMetrics.Snapshot after = poolMetrics.snapshot();
+        assertThat(after.getMax()).isGreaterThan(0);
+        assertThat(after.getAcquire().getCount()).isGreaterThan(before.getAcquire().getCount());
+        assertThat(after.getUsage().getCount()).isGreaterThan(before.getUsage().getCount());
+        assertThat(after.getEndpoints().get("GET /test").getHold().getCount()).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,77 @@
+package study.datajpa.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import study.datajpa.repository.MemberRepository;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryValidatorTest {
+
+    QueryValidator queryValidator = new QueryValidator();
+
+    @Test
+    @DisplayName("조인 조건 없는 네이티브 join 은 ERROR")
+    public void joinWithoutCondition() {
+        List<QueryIssue> issues = queryValidator.validate(
+                "select m.member_id as id, m.username, t.name as teamName from member m left join team t",
+                "select count(*) from member", true);
+
+        assertThat(issues).anyMatch(issue -> issue.isError() && issue.getMessage().contains("team"));
+    }
+
+    @Test
+    @DisplayName("on 절이 있거나 JPQL 연관관계 경로 조인이면 통과")
+    public void joinWithCondition() {
+        assertThat(queryValidator.validate(
+                "select m.username from member m left join team t on m.team_id = t.team_id where m.age = ?", "", true))
+                .isEmpty();
+        assertThat(queryValidator.validate(
+                "select m from Member m left join fetch m.team t where m.age = :age", "", false))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("where 없는 콤마 조인, select * 검출")
+    public void commaJoinAndSelectAll() {
+        assertThat(queryValidator.validate("select * from member m, team t", "", true))
+                .anyMatch(issue -> issue.getSeverity() == QueryIssue.Severity.WARN)
+                .anyMatch(QueryIssue::isError);
+    }
+
+    @Test
+    @DisplayName("countQuery 가 본 쿼리의 where, inner join 과 다르면 ERROR")
+    public void countQueryMismatch() {
+        assertThat(queryValidator.validate(
+                "select m from Member m where m.age = :age",
+                "select count(m) from Member m", false))
+                .anyMatch(issue -> issue.isError() && issue.getMessage().contains("where"));
+
+        assertThat(queryValidator.validate(
+                "select m from Member m join m.team t",
+                "select count(m) from Member m", false))
+                .anyMatch(issue -> issue.isError() && issue.getMessage().contains("inner join"));
+
+        assertThat(queryValidator.validate(
+                "select m from Member m left join m.team t",
+                "select count(m) from Member m", false))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("MemberRepository 의 @Query 에는 ERROR 가 없다")
+    public void memberRepositoryQueries() {
+        for (Method method : MemberRepository.class.getDeclaredMethods()) {
+            Query query = method.getAnnotation(Query.class);
+            if (query != null) {
+                assertThat(queryValidator.validate(query.value(), query.countQuery(), query.nativeQuery()))
+                        .as(method.getName())
+                        .noneMatch(QueryIssue::isError);
+            }
+        }
+    }
+}
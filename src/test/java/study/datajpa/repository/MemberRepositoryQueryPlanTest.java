@@ -0,0 +1,104 @@
+package study.datajpa.repository;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 리포지토리 쿼리가 실행한 SQL 을 H2 EXPLAIN 으로 확인해서 member/team 테이블 풀 스캔으로 떨어지면 실패한다.
+ * 조건 없이 전체를 읽는 쿼리(findAll, findUsernameList, findMemberDto, findMemberFetchJoin 등)는 풀 스캔이 정상이므로 제외한다.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=study.datajpa.repository.SqlCaptureInspector")
+@Transactional
+class MemberRepositoryQueryPlanTest {
+
+    @Autowired MemberRepository memberRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    @DisplayName("username 조건 쿼리는 username 인덱스를 사용한다")
+    public void username() {
+        assertNoFullScan(() -> memberRepository.findByUsername("planMember1"));
+        assertNoFullScan(() -> memberRepository.findListByUsername("planMember1"));
+        assertNoFullScan(() -> memberRepository.findMemberByUsername("planMember1"));
+        assertNoFullScan(() -> memberRepository.findOptionalByUsername("planMember1"));
+        assertNoFullScan(() -> memberRepository.findEntityGraphByUsername("planMember1"));
+        assertNoFullScan(() -> memberRepository.findReadOnlyByUsername("planMember1"));
+        assertNoFullScan(() -> memberRepository.findLockByUsername("planMember1"));
+        assertNoFullScan(() -> memberRepository.findProjectionsByUsername("planMember1", UsernameOnlyDto.class));
+        assertNoFullScan(() -> memberRepository.findByNativeQuery("planMember1"));
+        assertNoFullScan(() -> memberRepository.findAll(MemberSpec.username("planMember1")));
+    }
+
+    @Test
+    @DisplayName("username + age 조건 쿼리")
+    public void usernameAndAge() {
+        assertNoFullScan(() -> memberRepository.findByUsernameAndAgeGreaterThan("planMember1", 10));
+        assertNoFullScan(() -> memberRepository.findUser("planMember1", 10));
+        assertNoFullScan(() -> memberRepository.findByNames(Arrays.asList("planMember1", "planMember2")));
+    }
+
+    @Test
+    @DisplayName("age 조건 페이징 쿼리는 age 인덱스를 사용한다")
+    public void age() {
+        assertNoFullScan(() -> memberRepository.findSliceByAge(10, PageRequest.of(0, 3, Sort.by("username"))));
+        assertNoFullScan(() -> memberRepository.findByAge(10, PageRequest.of(0, 3, Sort.by("username"))));
+    }
+
+    @Test
+    @DisplayName("팀 이름 명세는 team 이름 인덱스와 member.team_id 인덱스로 조인한다")
+    public void teamName() {
+        assertNoFullScan(() -> memberRepository.findAll(MemberSpec.teamName("teamA")));
+    }
+
+    private void assertNoFullScan(Runnable query) {
+        SqlCaptureInspector.start();
+        List<String> sqls;
+        try {
+            query.run();
+        } finally {
+            sqls = SqlCaptureInspector.stop();
+        }
+
+        assertThat(sqls).isNotEmpty();
+        for (String sql : sqls) {
+            String plan = explain(sql);
+            assertThat(plan)
+                    .as("full table scan: %s%n%s", sql, plan)
+                    .doesNotContain("PUBLIC.MEMBER.tableScan")
+                    .doesNotContain("PUBLIC.TEAM.tableScan");
+        }
+    }
+
+    private String explain(String sql) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("explain " + sql)) {
+                int parameterCount = ps.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameterCount; i++) {
+                    ps.setObject(i, null);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    StringBuilder plan = new StringBuilder();
+                    while (rs.next()) {
+                        plan.append(rs.getString(1));
+                    }
+                    return plan.toString();
+                }
+            }
+        });
+    }
+}
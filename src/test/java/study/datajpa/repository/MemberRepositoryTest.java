@@ -24,6 +24,7 @@ import java.util.Optional;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -500,4 +501,63 @@ class MemberRepositoryTest {
                     System.out.println("memberProjection = " + memberProjection.getTeamName());
                 });
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Specification 벌크 수정 - 엔티티 로딩 없이 UPDATE")
+    public void bulkUpdateBySpec() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member m1 = new Member("m1", 10, teamA);
+        Member m2 = new Member("m2", 20, teamA);
+        Member m3 = new Member("m3", 30, teamB);
+        em.persist(m1);
+        em.persist(m2);
+        em.persist(m3);
+
+        // when
+        int resultCount = memberRepository.bulkUpdate(MemberSpec.teamName("teamA"), "age", 50);
+
+        // then
+        assertThat(resultCount).isEqualTo(2);
+        assertThat(em.contains(m1)).isFalse(); // clearAutomatically
+        assertThat(memberRepository.findById(m1.getId()).orElseThrow().getAge()).isEqualTo(50);
+        assertThat(memberRepository.findById(m3.getId()).orElseThrow().getAge()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Specification 벌크 삭제 - 엔티티 로딩 없이 DELETE")
+    public void bulkDeleteBySpec() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        Member m1 = new Member("m1", 10, teamA);
+        Member m2 = new Member("m2", 20, teamA);
+        Member m3 = new Member("m3", 30);
+        em.persist(m1);
+        em.persist(m2);
+        em.persist(m3);
+
+        // when
+        int resultCount = memberRepository.bulkDelete(MemberSpec.username("m1").or(MemberSpec.username("m3")));
+
+        // then
+        assertThat(resultCount).isEqualTo(2);
+        assertThat(memberRepository.findById(m1.getId())).isEmpty();
+        assertThat(memberRepository.findById(m3.getId())).isEmpty();
+        assertThat(memberRepository.findById(m2.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Specification 벌크 연산 - 명세가 null 이면 실행하지 않고 거부")
+    public void bulkBySpecRejectsNull() {
+        assertThatThrownBy(() -> memberRepository.bulkUpdate(null, "age", 50))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberRepository.bulkDelete(null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,33 @@
+package study.datajpa.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 리포지토리 메소드가 실행한 SQL 을 가로채 기록한다. (hibernate.session_factory.statement_inspector)
+ */
+public class SqlCaptureInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+    public static void start() {
+        captured.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> result = captured.get();
+        captured.remove();
+        return result;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> sqls = captured.get();
+        if (sqls != null) {
+            sqls.add(sql);
+        }
+        return sql;
+    }
+}
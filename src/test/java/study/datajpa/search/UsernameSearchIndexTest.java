@@ -0,0 +1,110 @@
+package study.datajpa.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UsernameSearchIndexTest {
+
+    @Autowired UsernameSearchIndex usernameSearchIndex;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "searchIdx", "searchTeam");
+    }
+
+    @Test
+    @DisplayName("커밋된 회원 생성/수정/삭제가 접두어, 부분 문자열 검색에 반영된다")
+    public void searchFollowsChanges() {
+        // given
+        Team team = teamRepository.save(new Team("searchTeam"));
+        Member alice = memberRepository.save(new Member("searchIdxAlice", 10, team));
+        memberRepository.save(new Member("searchIdxAlina", 20, team));
+        Member bob = memberRepository.save(new Member("searchIdxBob", 30));
+
+        // then
+        assertThat(memberRepository.searchByUsernamePrefix("SEARCHIDXALI", 10))
+                .extracting(Member::getUsername)
+                .containsExactly("searchIdxAlice", "searchIdxAlina");
+        assertThat(memberRepository.searchByUsernamePrefix("searchIdx", 2)).hasSize(2);
+        assertThat(memberRepository.searchByUsernameContaining("idxbo", 10))
+                .extracting(Member::getUsername)
+                .containsExactly("searchIdxBob");
+        assertThat(memberRepository.searchByUsernameContaining("lin", 10))
+                .extracting(Member::getUsername)
+                .contains("searchIdxAlina")
+                .doesNotContain("searchIdxAlice");
+        assertThat(memberRepository.searchByUsernamePrefix("searchIdxAlice", 10).get(0).getTeam().getName())
+                .isEqualTo("searchTeam");
+
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findById(alice.getId()).orElseThrow().setUsername("searchIdxCarol"));
+        memberRepository.deleteById(bob.getId());
+
+        // then
+        assertThat(memberRepository.searchByUsernamePrefix("searchIdxAli", 10))
+                .extracting(Member::getUsername)
+                .containsExactly("searchIdxAlina");
+        assertThat(memberRepository.searchByUsernameContaining("idxcar", 10))
+                .extracting(Member::getId)
+                .containsExactly(alice.getId());
+        assertThat(memberRepository.searchByUsernameContaining("idxbob", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("3 글자 미만 키워드도 gram 색인으로 찾고 username 순서로 limit 개만 돌려준다")
+    public void searchShortKeyword() {
+        // given
+        UsernameSearchIndex.Index index = new UsernameSearchIndex.Index();
+        index.add(1L, "Dave");
+        index.add(2L, "anna");
+        index.add(3L, "Carl");
+        index.add(4L, "bob");
+        index.add(5L, "Anna");
+
+        // then
+        assertThat(index.searchContaining("a", 3)).containsExactlyInAnyOrder(2L, 5L, 3L); // anna(2, 5), carl
+        assertThat(index.searchContaining("an", 10)).containsExactlyInAnyOrder(2L, 5L);
+        assertThat(index.searchContaining("ob", 10)).containsExactly(4L);
+        assertThat(index.searchContaining("x", 10)).isEmpty();
+
+        // when
+        index.remove(4L);
+
+        // then
+        assertThat(index.searchContaining("o", 10)).isEmpty();
+        assertThat(index.usernamesByGram).doesNotContainKeys("b", "bo", "bob");
+    }
+
+    @Test
+    @DisplayName("rebuild 는 회원 테이블과 같은 인덱스를 만든다")
+    public void rebuild() {
+        // given
+        memberRepository.save(new Member("searchIdxRebuild", 10));
+
+        // when
+        int size = usernameSearchIndex.rebuild();
+
+        // then
+        assertThat(size).isEqualTo(memberRepository.count());
+        assertThat(memberRepository.searchByUsernamePrefix("searchIdxRebuild", 10)).hasSize(1);
+    }
+}
@@ -0,0 +1,107 @@
+package study.datajpa.shard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "shard.enabled=true",
+        "shard.initialize-schema=true",
+        "shard.urls[0]=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "shard.urls[1]=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "shard.urls[2]=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1"
+})
+class ShardedMemberRepositoryTest {
+
+    @Autowired ShardedMemberRepository shardedMemberRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    @Test
+    @DisplayName("팀마다 다른 샤드에 저장되고, 회원은 팀의 샤드로 라우팅되며 교차 샤드 조회는 병합된다")
+    public void routeAndFanOut() {
+        // given
+        long before = shardedMemberRepository.count();
+        Team teamA = shardedMemberRepository.saveTeam(new Team("shardTeamA"));
+        Team teamB = shardedMemberRepository.saveTeam(new Team("shardTeamB"));
+        Team teamC = shardedMemberRepository.saveTeam(new Team("shardTeamC"));
+
+        assertThat(List.of(shardedMemberRepository.shardOf(teamA),
+                shardedMemberRepository.shardOf(teamB),
+                shardedMemberRepository.shardOf(teamC)))
+                .containsExactlyInAnyOrder(0, 1, 2);
+
+        Member memberA = shardedMemberRepository.save(new Member("shardMember1", 10, teamA));
+        shardedMemberRepository.save(new Member("shardMember4", 40, teamA));
+        shardedMemberRepository.save(new Member("shardMember2", 20, teamB));
+        shardedMemberRepository.save(new Member("shardMember5", 50, teamB));
+        shardedMemberRepository.save(new Member("shardMember3", 30, teamC));
+        shardedMemberRepository.save(new Member("shardSame", 60, teamA));
+        shardedMemberRepository.save(new Member("shardSame", 70, teamC));
+
+        // then
+        assertThat(ShardIds.shardOf(memberA.getId())).isEqualTo(shardedMemberRepository.shardOf(teamA));
+        assertThat(shardedMemberRepository.findById(memberA.getId()))
+                .map(MemberDto::getTeamName).contains("shardTeamA");
+
+        assertThat(shardedMemberRepository.findByUsername("shardSame"))
+                .extracting(MemberDto::getTeamName)
+                .containsExactlyInAnyOrder("shardTeamA", "shardTeamC");
+
+        assertThat(shardedMemberRepository.count()).isEqualTo(before + 7);
+
+        // 다른 테스트의 회원("routed*")은 "shard*" 보다 뒤에 온다.
+        Page<MemberDto> page = shardedMemberRepository.findAll(
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "username")));
+        assertThat(page.getTotalElements()).isEqualTo(before + 7);
+        assertThat(page.getContent().stream().map(MemberDto::getUsername).collect(toList()))
+                .containsExactly("shardMember5", "shardMember4");
+    }
+
+    @Test
+    @DisplayName("샤드를 모르는 MemberRepository 호출도 팀의 샤드에 저장되고, 조회는 모든 샤드에서 병합된다")
+    public void routeRepositoryCalls() {
+        // given
+        long before = memberRepository.count();
+        Team teamA = teamRepository.save(new Team("routedTeamA"));
+        Team teamB = teamRepository.save(new Team("routedTeamB"));
+        assertThat(ShardIds.shardOf(teamA.getId())).isNotEqualTo(ShardIds.shardOf(teamB.getId()));
+
+        // when
+        Member memberA = memberRepository.save(new Member("routedMember", 10, teamA));
+        Member memberB = memberRepository.save(new Member("routedMember", 20, teamB));
+
+        // then
+        assertThat(ShardIds.shardOf(memberA.getId())).isEqualTo(ShardIds.shardOf(teamA.getId()));
+        assertThat(ShardIds.shardOf(memberB.getId())).isEqualTo(ShardIds.shardOf(teamB.getId()));
+        assertThat(memberRepository.findById(memberB.getId())).map(Member::getAge).contains(20);
+        assertThat(memberRepository.count()).isEqualTo(before + 2);
+
+        assertThat(memberRepository.findEntityGraphByUsername("routedMember"))
+                .extracting(member -> member.getTeam().getName())
+                .containsExactlyInAnyOrder("routedTeamA", "routedTeamB");
+
+        // team.name 정렬 키는 샤드 트랜잭션 안에서 읽는다. ("routedTeam*" 가 "shardTeam*" 보다 앞에 온다)
+        Page<Member> page = memberRepository.findAll(PageRequest.of(0, 2, Sort.by("team.name")));
+        assertThat(page.getTotalElements()).isEqualTo(before + 2);
+        assertThat(page.getContent()).extracting(Member::getAge).containsExactly(10, 20);
+
+        assertThat(shardedMemberRepository.findAll(PageRequest.of(0, 2, Sort.by("team.name"))).getContent())
+                .extracting(MemberDto::getTeamName)
+                .containsExactly("routedTeamA", "routedTeamB");
+    }
+}
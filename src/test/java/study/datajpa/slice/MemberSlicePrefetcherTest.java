@@ -0,0 +1,100 @@
+package study.datajpa.slice;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.TestData;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MemberSlicePrefetcherTest {
+
+    @Autowired MemberSlicePrefetcher memberSlicePrefetcher;
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "sliceMember");
+    }
+
+    @Test
+    @DisplayName("커서를 들고 온 요청만 다음 slice 를 미리 읽고, 다음 요청은 미리 읽어 둔 결과로 응답한다")
+    public void prefetchNextSlice() {
+        // given
+        int age = 9033;
+        IntStream.range(0, 5).forEach(i -> memberRepository.save(new Member("sliceMember" + i, age)));
+        PageRequest first = PageRequest.of(0, 2, Sort.by("username"));
+        long hits = memberSlicePrefetcher.getHits();
+
+        // when
+        MemberSlicePrefetcher.CursorSlice slice0 = memberSlicePrefetcher.findSliceByAge(age, first, null);
+        MemberSlicePrefetcher.CursorSlice slice1 = next(age, slice0);
+        MemberSlicePrefetcher.CursorSlice slice2 = next(age, slice1);
+
+        // then
+        assertThat(usernames(slice0)).containsExactly("sliceMember0", "sliceMember1");
+        assertThat(usernames(slice1)).containsExactly("sliceMember2", "sliceMember3");
+        assertThat(usernames(slice2)).containsExactly("sliceMember4");
+        assertThat(slice2.getNextCursor()).isNull();
+        assertThat(memberSlicePrefetcher.getHits() - hits).isEqualTo(1); // slice0 은 커서가 없어서 미리 읽지 않는다.
+    }
+
+    @Test
+    @DisplayName("미리 읽은 slice 는 커서를 받은 클라이언트만 꺼내 쓴다")
+    public void prefetchPerCursor() {
+        // given
+        int age = 9034;
+        IntStream.range(0, 5).forEach(i -> memberRepository.save(new Member("sliceMember" + i, age)));
+        MemberSlicePrefetcher.CursorSlice slice1 = next(age, memberSlicePrefetcher.findSliceByAge(age, PageRequest.of(0, 2, Sort.by("username")), null));
+        long hits = memberSlicePrefetcher.getHits();
+
+        // when: 같은 (age, page) 를 다른 클라이언트가 먼저 요청
+        MemberSlicePrefetcher.CursorSlice other = memberSlicePrefetcher.findSliceByAge(age, slice1.getSlice().nextPageable(), null);
+        MemberSlicePrefetcher.CursorSlice slice2 = next(age, slice1);
+
+        // then
+        assertThat(usernames(other)).containsExactly("sliceMember4");
+        assertThat(usernames(slice2)).containsExactly("sliceMember4");
+        assertThat(memberSlicePrefetcher.getHits() - hits).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("같은 나이의 회원 변경이 커밋되면 미리 읽은 slice 를 버린다")
+    public void invalidateOnWrite() {
+        // given
+        int age = 9035;
+        IntStream.range(0, 5).forEach(i -> memberRepository.save(new Member("sliceMember" + i, age)));
+        MemberSlicePrefetcher.CursorSlice slice1 = next(age, memberSlicePrefetcher.findSliceByAge(age, PageRequest.of(0, 2, Sort.by("username")), null));
+        long misses = memberSlicePrefetcher.getMisses();
+
+        // when
+        memberRepository.save(new Member("sliceMember35", age));
+        MemberSlicePrefetcher.CursorSlice slice2 = next(age, slice1);
+
+        // then
+        assertThat(usernames(slice2)).containsExactly("sliceMember35", "sliceMember4");
+        assertThat(memberSlicePrefetcher.getMisses() - misses).isEqualTo(1);
+    }
+
+    private MemberSlicePrefetcher.CursorSlice next(int age, MemberSlicePrefetcher.CursorSlice previous) {
+        return memberSlicePrefetcher.findSliceByAge(age, previous.getSlice().nextPageable(), previous.getNextCursor());
+    }
+
+    private static List<String> usernames(MemberSlicePrefetcher.CursorSlice slice) {
+        return slice.getSlice().getContent().stream().map(MemberDto::getUsername).collect(toList());
+    }
+}
@@ -0,0 +1,66 @@
+package study.datajpa.sql;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {"sql.observe.sample-rate=0", "sql.observe.slow-threshold-millis=0"})
+class SqlObserverTest {
+
+    @Autowired SqlObserver sqlObserver;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    @DisplayName("리터럴과 IN 목록은 ? 로 접혀서 같은 모양으로 집계된다")
+    public void shapeOf() {
+        assertThat(SqlObserver.shapeOf("select * from member m where m.username = 'kim' and m.age > 10"))
+                .isEqualTo("select * from member m where m.username = ? and m.age > ?");
+        assertThat(SqlObserver.shapeOf("select member0_.member_id as member_i1_1_ from member member0_\n where member0_.member_id in (?, ?, ?)"))
+                .isEqualTo("select member0_.member_id as member_i1_1_ from member member0_ where member0_.member_id in (?)");
+    }
+
+    @Test
+    @DisplayName("JPA 쿼리가 SQL 모양별로 집계되고, 임계값 이상은 느린 쿼리로 센다")
+    public void observeRepositoryQueries() {
+        long slowBefore = sqlObserver.getSlowQueries();
+
+        for (int i = 0; i < 5; i++) {
+            memberRepository.findByUsername("sqlObserverMember" + i);
+        }
+
+        List<SqlObserver.ShapeSnapshot> snapshot = sqlObserver.snapshot(Integer.MAX_VALUE);
+        assertThat(snapshot)
+                .filteredOn(shape -> shape.getShape().contains("from member") && shape.getShape().contains("username=?"))
+                .anySatisfy(shape -> assertThat(shape.getCount()).isGreaterThanOrEqualTo(5));
+        assertThat(sqlObserver.getSlowQueries() - slowBefore).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("SQL 메모가 차도 리터럴만 다른 SQL 은 같은 모양에 합쳐지고, 모양 수가 차면 새 모양은 (other) 로 모인다")
+    public void capShapes() {
+        // given: 모양 2 개, SQL 메모 1 개
+        SqlObserver observer = new SqlObserver(0, 60_000, 2, 1);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            observer.executed("select * from member where member_id = " + i, List.of(), 1_000, false);
+        }
+        observer.executed("select * from team where team_id = 1", List.of(), 1_000, false);
+        observer.executed("select * from item where item_id = 1", List.of(), 1_000, false);
+
+        // then
+        assertThat(observer.snapshot(Integer.MAX_VALUE))
+                .extracting(SqlObserver.ShapeSnapshot::getShape, SqlObserver.ShapeSnapshot::getCount)
+                .containsExactlyInAnyOrder(
+                        tuple("select * from member where member_id = ?", 10L),
+                        tuple("select * from team where team_id = ?", 1L),
+                        tuple(SqlObserver.OTHER_SHAPE, 1L));
+    }
+}
@@ -0,0 +1,115 @@
+package study.datajpa.stats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStatistics;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.TeamStatisticsRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TeamStatisticsMaintainerTest {
+
+    @Autowired TeamStatisticsMaintainer teamStatisticsMaintainer;
+    @Autowired TeamStatisticsRepository teamStatisticsRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "stats");
+    }
+
+    @Test
+    @DisplayName("회원 생성, 팀 이동, 삭제, bulkAgePlus 가 팀 요약에 증분 반영되고 전체 재계산 결과와 같다")
+    public void incremental() {
+        // given
+        Team teamA = teamRepository.save(new Team("statsTeamA"));
+        Team teamB = teamRepository.save(new Team("statsTeamB"));
+        Member m1 = memberRepository.save(new Member("statsMember1", 2000, teamA));
+        Member m2 = memberRepository.save(new Member("statsMember2", 3000, teamA));
+        memberRepository.save(new Member("statsMember3", 4000, teamB));
+
+        assertStatistics(teamA, 2, 5000);
+        assertStatistics(teamB, 1, 4000);
+
+        // when
+        tx.executeWithoutResult(status -> memberRepository.findById(m1.getId()).orElseThrow()
+                .changeTeam(teamRepository.findById(teamB.getId()).orElseThrow()));
+        memberRepository.deleteById(m2.getId());
+        memberRepository.bulkAgePlus(3500);
+
+        // then
+        assertStatistics(teamA, 0, 0);
+        assertStatistics(teamB, 2, 6001);
+
+        teamStatisticsMaintainer.rebuild();
+        assertStatistics(teamA, 0, 0);
+        assertStatistics(teamB, 2, 6001);
+    }
+
+    @Test
+    @DisplayName("팀을 저장하면 빈 요약 row 가 생기고, 같은 팀의 첫 회원들이 동시에 저장돼도 모두 커밋된다")
+    public void concurrentFirstMembers() throws Exception {
+        // given
+        Team team = teamRepository.save(new Team("statsConcurrentTeam"));
+        assertStatistics(team, 0, 0);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Member>> saved = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < threads; i++) {
+            int age = i;
+            saved.add(executor.submit(() -> {
+                start.await();
+                return memberRepository.save(new Member("statsConcurrent" + age, age, team));
+            }));
+        }
+        start.countDown();
+        for (Future<Member> future : saved) {
+            future.get(10, TimeUnit.SECONDS); // PK 충돌로 롤백되면 여기서 실패
+        }
+        executor.shutdown();
+
+        // then
+        assertStatistics(team, threads, 28);
+    }
+
+    private void assertStatistics(Team team, long memberCount, long ageSum) {
+        TeamStatistics statistics = teamStatisticsRepository.findById(team.getId()).orElseThrow();
+        assertThat(statistics.getMemberCount()).isEqualTo(memberCount);
+        assertThat(statistics.getAgeSum()).isEqualTo(ageSum);
+    }
+}
@@ -0,0 +1,91 @@
+package study.datajpa.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CborResponseTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired RequestMappingHandlerAdapter handlerAdapter;
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "cbor");
+    }
+
+    @Test
+    @DisplayName("Accept: application/cbor 이면 같은 응답을 CBOR 로, 아니면 JSON 으로 준다")
+    public void negotiate() throws Exception {
+        // given
+        Team team = teamRepository.save(new Team("cborTeam"));
+        memberRepository.save(new Member("cborMember", 10, team));
+
+        // when
+        byte[] cbor = mockMvc.perform(get("/members/username/cborMember").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        String json = mockMvc.perform(get("/members/username/cborMember"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        JsonNode fromCbor = new ObjectMapper(new CBORFactory()).readTree(cbor);
+        JsonNode fromJson = new ObjectMapper().readTree(json);
+        assertThat(fromCbor).isEqualTo(fromJson);
+        assertThat(fromCbor.get(0).get("teamName").asText()).isEqualTo("cborTeam");
+        assertThat(cbor.length).isLessThan(json.getBytes().length);
+    }
+
+    @Test
+    @DisplayName("CBOR 컨버터는 하나만 등록되고 앱의 ObjectMapper 설정을 쓴다")
+    public void configuredMapper() {
+        // when
+        List<MappingJackson2CborHttpMessageConverter> converters = handlerAdapter.getMessageConverters().stream()
+                .filter(converter -> converter instanceof MappingJackson2CborHttpMessageConverter)
+                .map(converter -> (MappingJackson2CborHttpMessageConverter) converter)
+                .collect(toList());
+
+        // then (스프링 부트 설정은 WRITE_DATES_AS_TIMESTAMPS 를 끈다. Jackson 기본값은 켜져 있다)
+        assertThat(converters).hasSize(1);
+        ObjectMapper cborMapper = converters.get(0).getObjectMapper();
+        assertThat(cborMapper.getSerializationConfig().getSerializationFeatures())
+                .isEqualTo(objectMapper.getSerializationConfig().getSerializationFeatures());
+        assertThat(cborMapper.getDeserializationConfig().getDeserializationFeatures())
+                .isEqualTo(objectMapper.getDeserializationConfig().getDeserializationFeatures());
+        assertThat(cborMapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)).isFalse();
+    }
+}
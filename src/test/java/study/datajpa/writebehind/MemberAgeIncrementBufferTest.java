@@ -0,0 +1,116 @@
+package study.datajpa.writebehind;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.TestData;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.TeamStatisticsRepository;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MemberAgeIncrementBufferTest {
+
+    @Autowired MemberAgeIncrementBuffer memberAgeIncrementBuffer;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired TeamStatisticsRepository teamStatisticsRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        TestData.deleteByPrefix(jdbcTemplate, "writeBehind");
+    }
+
+    @Test
+    @DisplayName("여러 스레드의 증가가 유실 없이 합쳐지고, flush 한 번에 회원당 한 번씩 반영되며 팀 요약도 함께 갱신된다")
+    public void coalesceConcurrentIncrements() throws Exception {
+        // given
+        Team team = teamRepository.save(new Team("writeBehindTeam"));
+        Member m1 = memberRepository.save(new Member("writeBehind1", 10, team));
+        Member m2 = memberRepository.save(new Member("writeBehind2", 20, team));
+        Member m3 = memberRepository.save(new Member("writeBehind3", 30));
+        List<Member> members = List.of(m1, m2, m3);
+        memberAgeIncrementBuffer.flush();
+        long flushedBefore = memberAgeIncrementBuffer.snapshot().getFlushedRows();
+
+        int threads = 8;
+        int perThread = 3000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    memberAgeIncrementBuffer.increment(members.get(i % 3).getId(), 1);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        memberAgeIncrementBuffer.flush();
+
+        // then
+        int perMember = threads * perThread / 3;
+        assertThat(memberRepository.findById(m1.getId()).orElseThrow().getAge()).isEqualTo(10 + perMember);
+        assertThat(memberRepository.findById(m2.getId()).orElseThrow().getAge()).isEqualTo(20 + perMember);
+        assertThat(memberRepository.findById(m3.getId()).orElseThrow().getAge()).isEqualTo(30 + perMember);
+
+        assertThat(teamStatisticsRepository.findById(team.getId()).orElseThrow().getAgeSum()).isEqualTo(30 + 2L * perMember);
+
+        long flushedRows = memberAgeIncrementBuffer.snapshot().getFlushedRows() - flushedBefore;
+        assertThat(flushedRows).isLessThan(threads * perThread / 10); // 24000 번의 증가가 몇 번의 UPDATE 로 합쳐진다.
+    }
+
+    @Test
+    @DisplayName("증가가 없던 회원의 카운터는 flush 후 버퍼에서 빠진다")
+    public void retireIdleCounters() {
+        // given
+        Member member = memberRepository.save(new Member("writeBehindIdle", 10));
+        memberAgeIncrementBuffer.increment(member.getId(), 5);
+
+        // when
+        memberAgeIncrementBuffer.flush(); // 반영
+        memberAgeIncrementBuffer.flush(); // 증가 없음 -> 카운터 정리
+
+        // then
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getAge()).isEqualTo(15);
+        assertThat(memberAgeIncrementBuffer.snapshot().getPendingMembers()).isZero();
+    }
+
+    @Test
+    @DisplayName("없는 회원은 버퍼에 넣지 않고, 버퍼에 있는 동안 삭제된 회원의 증가분은 missingMembers 로 센다")
+    public void missingMembers() {
+        // given
+        Member member = memberRepository.save(new Member("writeBehindDeleted", 10));
+        long missingBefore = memberAgeIncrementBuffer.snapshot().getMissingMembers();
+
+        // when
+        boolean unknown = memberAgeIncrementBuffer.incrementIfExists(0L, 1); // 시퀀스는 1 부터
+        boolean known = memberAgeIncrementBuffer.incrementIfExists(member.getId(), 1);
+        memberRepository.deleteById(member.getId());
+        memberAgeIncrementBuffer.flush();
+
+        // then
+        assertThat(unknown).isFalse();
+        assertThat(known).isTrue();
+        assertThat(memberAgeIncrementBuffer.snapshot().getMissingMembers() - missingBefore).isEqualTo(1);
+    }
+}